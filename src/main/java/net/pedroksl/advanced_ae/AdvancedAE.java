@@ -10,13 +10,17 @@ import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.neoforge.capabilities.Capabilities;
 import net.neoforged.neoforge.capabilities.RegisterCapabilitiesEvent;
+import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.registries.RegisterEvent;
+import net.pedroksl.advanced_ae.common.commands.AAECommands;
 import net.pedroksl.advanced_ae.common.definitions.*;
+import net.pedroksl.advanced_ae.common.logic.QuantumComputerPlanner;
 import net.pedroksl.advanced_ae.common.parts.AdvPatternProviderPart;
 import net.pedroksl.advanced_ae.common.parts.SmallAdvPatternProviderPart;
 import net.pedroksl.advanced_ae.network.AAENetworkHandler;
 import net.pedroksl.advanced_ae.recipes.InitRecipeSerializers;
 import net.pedroksl.advanced_ae.recipes.InitRecipeTypes;
+import net.pedroksl.advanced_ae.recipes.ReactionChamberRecipes;
 import net.pedroksl.advanced_ae.xmod.appflux.AFCommonLoad;
 
 import appeng.api.AECapabilities;
@@ -61,11 +65,16 @@ public class AdvancedAE {
                 InitRecipeSerializers.init(event.getRegistry(Registries.RECIPE_SERIALIZER));
             }
         });
+
+        NeoForge.EVENT_BUS.addListener(AAECommands::register);
+        NeoForge.EVENT_BUS.addListener(ReactionChamberRecipes::invalidateIndex);
+        NeoForge.EVENT_BUS.addListener(QuantumComputerPlanner::shutdown);
     }
 
     private static void initUpgrades(FMLCommonSetupEvent event) {
         event.enqueueWork(() -> {
             Upgrades.add(AEItems.SPEED_CARD, AAEBlocks.REACTION_CHAMBER, 4);
+            Upgrades.add(AEItems.CAPACITY_CARD, AAEBlocks.REACTION_CHAMBER, 3);
 
             if (ModList.get().isLoaded("appflux")) {
                 AFCommonLoad.init();
@@ -2,6 +2,7 @@ package net.pedroksl.advanced_ae.client.gui;
 
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.player.Inventory;
+import net.pedroksl.advanced_ae.common.definitions.AAEText;
 import net.pedroksl.advanced_ae.gui.reactionchamber.ReactionChamberMenu;
 import net.pedroksl.advanced_ae.gui.widgets.AAEActionButton;
 import net.pedroksl.advanced_ae.gui.widgets.AAEActionItems;
@@ -38,7 +39,13 @@ public class ReactionChamberScreen extends UpgradeableScreen<ReactionChamberMenu
         super.updateBeforeRender();
 
         int progress = this.menu.getCurrentProgress() * 100 / this.menu.getMaxProgress();
-        this.pb.setFullMsg(Component.literal(progress + "%"));
+        var progressMsg = Component.literal(progress + "%");
+        if (this.menu.getMaxParallelCrafts() > 1) {
+            progressMsg.append(" - ")
+                    .append(AAEText.ParallelCrafts.text(
+                            this.menu.getParallelCrafts(), this.menu.getMaxParallelCrafts()));
+        }
+        this.pb.setFullMsg(progressMsg);
 
         this.autoExportBtn.set(getMenu().getAutoExport());
     }
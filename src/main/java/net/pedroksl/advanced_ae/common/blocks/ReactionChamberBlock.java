@@ -6,6 +6,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.StateDefinition;
@@ -42,6 +43,28 @@ public class ReactionChamberBlock extends AEBaseEntityBlock<ReactionChamberEntit
         return super.useWithoutItem(state, level, pos, player, hitResult);
     }
 
+    @Override
+    public void neighborChanged(
+            BlockState state, Level level, BlockPos pos, Block block, BlockPos fromPos, boolean isMoving) {
+        super.neighborChanged(state, level, pos, block, fromPos, isMoving);
+
+        var be = getBlockEntity(level, pos);
+        if (be != null && !level.isClientSide()) {
+            be.onNeighborChanged(fromPos);
+        }
+    }
+
+    @Override
+    public void onNeighborChange(BlockState state, LevelReader level, BlockPos pos, BlockPos neighbor) {
+        super.onNeighborChange(state, level, pos, neighbor);
+
+        // Also called when the inventory of a horizontal neighbor changes
+        var be = getBlockEntity(level, pos);
+        if (be != null && !level.isClientSide()) {
+            be.onNeighborChanged(neighbor);
+        }
+    }
+
     @Override
     protected void createBlockStateDefinition(@Nonnull StateDefinition.Builder<Block, BlockState> builder) {
         super.createBlockStateDefinition(builder);
@@ -14,6 +14,7 @@ import net.minecraft.world.ItemInteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.StateDefinition;
@@ -48,7 +49,18 @@ public class SmallAdvPatternProviderBlock extends AEBaseEntityBlock<SmallAdvPatt
             BlockState state, Level level, BlockPos pos, Block block, BlockPos fromPos, boolean isMoving) {
         var be = this.getBlockEntity(level, pos);
         if (be != null) {
-            be.getLogic().updateRedstoneState();
+            be.getLogic().onNeighborChanged();
+        }
+    }
+
+    @Override
+    public void onNeighborChange(BlockState state, LevelReader level, BlockPos pos, BlockPos neighbor) {
+        super.onNeighborChange(state, level, pos, neighbor);
+
+        // Called when a neighbor's block entity changed, e.g. its inventory
+        var be = this.getBlockEntity(level, pos);
+        if (be != null && !level.isClientSide()) {
+            be.getLogic().onNeighborContentChanged();
         }
     }
 
@@ -11,6 +11,7 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.level.Level;
 import net.pedroksl.advanced_ae.common.entities.AdvCraftingBlockEntity;
+import net.pedroksl.advanced_ae.common.logic.AdvCraftingCPULogic;
 
 import appeng.api.config.CpuSelectionMode;
 import appeng.api.config.Settings;
@@ -35,6 +36,10 @@ public class AdvCraftingCPUCluster implements IAECluster {
     private final BlockPos boundsMax;
 
     private final HashMap<ICraftingPlan, AdvCraftingCPU> activeCpus = new HashMap<>();
+    /**
+     * Read-only snapshot of {@link #activeCpus}, rebuilt whenever a CPU is added or removed.
+     */
+    private List<AdvCraftingCPU> activeCpuView = List.of();
     private AdvCraftingCPU remainingStorageCpu;
     private final List<AdvCraftingBlockEntity> blockEntities = new ArrayList<>();
     private final List<CraftingMonitorBlockEntity> status = new ArrayList<>();
@@ -48,6 +53,9 @@ public class AdvCraftingCPUCluster implements IAECluster {
     private int accelerator = 0;
     private int acceleratorMultiplier = 0;
 
+    @Nullable
+    private AdvCraftingCPULogic.WaitingForListener waitingForListener = null;
+
     public AdvCraftingCPUCluster(BlockPos boundsMin, BlockPos boundsMax) {
         this.boundsMin = boundsMin.immutable();
         this.boundsMax = boundsMax.immutable();
@@ -223,10 +231,12 @@ public class AdvCraftingCPUCluster implements IAECluster {
         if (getAvailableStorage() < plan.bytes()) return CraftingSubmitResult.CPU_TOO_SMALL;
 
         var newCpu = new AdvCraftingCPU(this, plan);
+        newCpu.craftingLogic.setWaitingForListener(this.waitingForListener);
 
         var submitResult = newCpu.craftingLogic.trySubmitJob(grid, plan, src, requestingMachine);
         if (submitResult.successful()) {
             this.activeCpus.put(plan, newCpu);
+            updateActiveCpuView();
             recalculateRemainingStorage();
             updateGridForChangedCpu(this);
         }
@@ -249,26 +259,44 @@ public class AdvCraftingCPUCluster implements IAECluster {
 
     protected void deactivate(ICraftingPlan plan) {
         this.activeCpus.remove(plan);
+        updateActiveCpuView();
         recalculateRemainingStorage();
         updateGridForChangedCpu(this);
     }
 
+    /**
+     * @return An unmodifiable view of the CPUs of this cluster. It only changes when a job is submitted or a CPU is
+     *         deactivated, so it is safe to iterate while ticking the CPUs.
+     */
     public List<AdvCraftingCPU> getActiveCPUs() {
-        var list = new ArrayList<AdvCraftingCPU>();
-        var killList = new ArrayList<ICraftingPlan>();
+        return this.activeCpuView;
+    }
+
+    /**
+     * Marks the CPUs that no longer have a job for deletion. Called once per tick by the crafting service, before the
+     * CPUs are ticked.
+     */
+    public void reapInactiveCPUs() {
         for (var cpuEntry : activeCpus.entrySet()) {
-            var cpu = cpuEntry.getValue();
-            if (cpu.craftingLogic.hasJob() || cpu.craftingLogic.isMarkedForDeletion()) {
-                list.add(cpu);
-            } else {
-                killList.add(cpuEntry.getKey());
+            var logic = cpuEntry.getValue().craftingLogic;
+            if (!logic.hasJob() && !logic.isMarkedForDeletion()) {
+                killCpu(cpuEntry.getKey());
             }
         }
-        for (var cpu : killList) {
-            killCpu(cpu);
-        }
+    }
 
-        return list;
+    private void updateActiveCpuView() {
+        this.activeCpuView = List.copyOf(this.activeCpus.values());
+    }
+
+    /**
+     * Sets the listener of the grid this cluster is connected to, which routes inserted items to the waiting CPUs.
+     */
+    public void setWaitingForListener(@Nullable AdvCraftingCPULogic.WaitingForListener listener) {
+        this.waitingForListener = listener;
+        for (var cpu : this.activeCpus.values()) {
+            cpu.craftingLogic.setWaitingForListener(listener);
+        }
     }
 
     public AdvCraftingCPU getRemainingCapacityCPU() {
@@ -359,9 +387,11 @@ public class AdvCraftingCPUCluster implements IAECluster {
                 CompoundTag pair = cpuList.getCompound(x);
                 var plan = readCraftingPlanFromNBT(pair.getCompound("key"), registries);
                 var cpu = new AdvCraftingCPU(this, plan);
+                cpu.craftingLogic.setWaitingForListener(this.waitingForListener);
                 this.activeCpus.put(plan, cpu);
                 cpu.readFromNBT(pair.getCompound("cpu"), registries);
             }
+            updateActiveCpuView();
         }
         this.configManager.readFromNBT(data, registries);
         recalculateRemainingStorage();
@@ -0,0 +1,150 @@
+package net.pedroksl.advanced_ae.common.commands;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.pedroksl.advanced_ae.AdvancedAE;
+import net.pedroksl.advanced_ae.common.logic.AdvPatternProviderLogic;
+import net.pedroksl.advanced_ae.common.logic.PatternProviderStats;
+
+/**
+ * Server commands to find out which advanced pattern providers are slowing down crafting.
+ */
+public final class AAECommands {
+    private static final int DEFAULT_COUNT = 10;
+
+    private AAECommands() {}
+
+    public static void register(RegisterCommandsEvent event) {
+        event.getDispatcher()
+                .register(Commands.literal(AdvancedAE.MOD_ID)
+                        .requires(source -> source.hasPermission(2))
+                        .then(Commands.literal("providers")
+                                .executes(ctx -> listProviders(ctx, DEFAULT_COUNT))
+                                .then(Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                                        .executes(ctx ->
+                                                listProviders(ctx, IntegerArgumentType.getInteger(ctx, "count"))))
+                                .then(Commands.literal("dump").executes(AAECommands::dumpProviders))
+                                .then(Commands.literal("reset").executes(AAECommands::resetProviders))));
+    }
+
+    /**
+     * @return The providers of the server, the ones that spent the most time pushing patterns first.
+     */
+    private static List<AdvPatternProviderLogic> getServerProviders() {
+        return PatternProviderStats.getProviders().stream()
+                .filter(provider -> provider.getHostEntity().getLevel() instanceof ServerLevel
+                        && !provider.getHostEntity().isRemoved())
+                .sorted(Comparator.comparingLong(
+                                (AdvPatternProviderLogic provider) -> provider.getStats().getPushNanos())
+                        .reversed())
+                .toList();
+    }
+
+    private static int listProviders(CommandContext<CommandSourceStack> ctx, int count) {
+        var source = ctx.getSource();
+        var providers = getServerProviders();
+        var header = "%d advanced pattern providers loaded, slowest first:".formatted(providers.size());
+        source.sendSuccess(() -> Component.literal(header), false);
+
+        for (var provider : providers.subList(0, Math.min(count, providers.size()))) {
+            var stats = provider.getStats();
+            var line = "%s: %d pushed / %d attempts, %.2f ms, %d waiting to be sent%s"
+                    .formatted(
+                            describeLocation(provider),
+                            stats.getSuccesses(),
+                            stats.getAttempts(),
+                            stats.getPushNanos() / 1_000_000.0,
+                            provider.getSendListAmount(),
+                            provider.isIdle() ? " (idle)" : "");
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        return providers.size();
+    }
+
+    private static int dumpProviders(CommandContext<CommandSourceStack> ctx) {
+        var source = ctx.getSource();
+        var providers = getServerProviders();
+
+        var json = new JsonArray();
+        for (var provider : providers) {
+            json.add(toJson(provider));
+        }
+
+        var path = source.getServer()
+                .getServerDirectory()
+                .resolve("debug")
+                .resolve(AdvancedAE.MOD_ID + "_pattern_providers.json");
+        try {
+            Files.createDirectories(path.getParent());
+            try (var writer = Files.newBufferedWriter(path)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+            }
+        } catch (IOException e) {
+            source.sendFailure(Component.literal("Could not write " + path + ": " + e.getMessage()));
+            return 0;
+        }
+
+        source.sendSuccess(
+                () -> Component.literal("Wrote %d pattern providers to %s".formatted(providers.size(), path)), true);
+        return providers.size();
+    }
+
+    private static int resetProviders(CommandContext<CommandSourceStack> ctx) {
+        var providers = getServerProviders();
+        for (var provider : providers) {
+            provider.getStats().reset();
+        }
+        var message = "Reset the statistics of %d pattern providers".formatted(providers.size());
+        ctx.getSource().sendSuccess(() -> Component.literal(message), true);
+        return providers.size();
+    }
+
+    private static JsonObject toJson(AdvPatternProviderLogic provider) {
+        var stats = provider.getStats();
+        var be = provider.getHostEntity();
+
+        var json = new JsonObject();
+        json.addProperty("dimension", be.getLevel().dimension().location().toString());
+        json.addProperty("x", be.getBlockPos().getX());
+        json.addProperty("y", be.getBlockPos().getY());
+        json.addProperty("z", be.getBlockPos().getZ());
+        json.addProperty("attempts", stats.getAttempts());
+        json.addProperty("successes", stats.getSuccesses());
+
+        var rejections = new JsonObject();
+        for (var rejection : PatternProviderStats.Rejection.values()) {
+            rejections.addProperty(rejection.name().toLowerCase(), stats.getRejections(rejection));
+        }
+        json.add("rejections", rejections);
+
+        json.addProperty("pushNanos", stats.getPushNanos());
+        json.addProperty("sendListKeys", provider.getSendListSize());
+        json.addProperty("sendListAmount", provider.getSendListAmount());
+        json.addProperty("lastSentAmount", provider.getLastSentAmount());
+        json.addProperty("tickInterval", provider.getTickInterval());
+        json.addProperty("idle", provider.isIdle());
+        json.addProperty("insertDisagreements", provider.getInsertDisagreements());
+        return json;
+    }
+
+    private static String describeLocation(AdvPatternProviderLogic provider) {
+        var be = provider.getHostEntity();
+        var pos = be.getBlockPos();
+        return "%s %d, %d, %d"
+                .formatted(be.getLevel().dimension().location(), pos.getX(), pos.getY(), pos.getZ());
+    }
+}
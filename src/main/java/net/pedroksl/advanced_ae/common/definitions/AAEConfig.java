@@ -41,6 +41,26 @@ public class AAEConfig {
         return common.quantumComputerDataEntanglerMultiplication.get();
     }
 
+    public boolean isQuantumComputerEnergyBudget() {
+        return common.quantumComputerEnergyBudget.get();
+    }
+
+    public int getQuantumComputerMaxProviderBackoff() {
+        return common.quantumComputerMaxProviderBackoff.get();
+    }
+
+    public boolean isQuantumComputerParallelPlanning() {
+        return common.quantumComputerParallelPlanning.get();
+    }
+
+    public int getPatternProviderIdleAfter() {
+        return common.patternProviderIdleAfter.get();
+    }
+
+    public int getPatternProviderIdleTickRate() {
+        return common.patternProviderIdleTickRate.get();
+    }
+
     public void save() {
         common.spec.save();
         client.spec.save();
@@ -76,6 +96,11 @@ public class AAEConfig {
         public final ModConfigSpec.IntValue quantumComputerMaxDataEntanglers;
         public final ModConfigSpec.IntValue quantumComputerMultiThreaderMultiplication;
         public final ModConfigSpec.IntValue quantumComputerDataEntanglerMultiplication;
+        public final ModConfigSpec.BooleanValue quantumComputerEnergyBudget;
+        public final ModConfigSpec.IntValue quantumComputerMaxProviderBackoff;
+        public final ModConfigSpec.BooleanValue quantumComputerParallelPlanning;
+        public final ModConfigSpec.IntValue patternProviderIdleAfter;
+        public final ModConfigSpec.IntValue patternProviderIdleTickRate;
 
         public CommonConfig() {
             var builder = new ModConfigSpec.Builder();
@@ -123,6 +148,46 @@ public class AAEConfig {
                     2,
                     8,
                     "Define the multiplication factor of the data entanglers.");
+            quantumComputerEnergyBudget = define(
+                    builder,
+                    "quantumComputerEnergyBudget",
+                    true,
+                    "Reserve the power for a whole tick of crafting at once instead of extracting it for every "
+                            + "pushed pattern. Unused power is returned to the network at the end of the tick.");
+            quantumComputerMaxProviderBackoff = define(
+                    builder,
+                    "quantumComputerMaxProviderBackoff",
+                    20,
+                    0,
+                    200,
+                    "Define the maximum amount of ticks a Quantum Computer waits before retrying a pattern provider "
+                            + "that rejected a pattern. Set to 0 to retry every tick.");
+            quantumComputerParallelPlanning = define(
+                    builder,
+                    "quantumComputerParallelPlanning",
+                    false,
+                    "Extract the inputs of processing patterns for all busy Quantum Computers in parallel on "
+                            + "worker threads. Patterns are still pushed on the server thread.");
+            builder.pop();
+
+            builder.push("pattern provider");
+            patternProviderIdleAfter = define(
+                    builder,
+                    "patternProviderIdleAfter",
+                    8,
+                    0,
+                    100,
+                    "Define how many attempts in a row a pattern provider makes to send stacks to a full target before "
+                            + "it only retries at the idle rate. Set to 0 to never go idle.");
+            patternProviderIdleTickRate = define(
+                    builder,
+                    "patternProviderIdleTickRate",
+                    400,
+                    20,
+                    1200,
+                    "Define the amount of ticks between retries of an idle pattern provider. Idle providers retry "
+                            + "immediately when one of their neighbors or its capabilities change, or when the "
+                            + "contents of a neighbor change.");
             builder.pop();
 
             this.spec = builder.build();
@@ -148,5 +213,11 @@ public class AAEConfig {
         private static ModConfigSpec.IntValue define(ModConfigSpec.Builder builder, String name, int defaultValue) {
             return define(builder, name, defaultValue, Integer.MIN_VALUE, Integer.MAX_VALUE);
         }
+
+        private static ModConfigSpec.BooleanValue define(
+                ModConfigSpec.Builder builder, String name, boolean defaultValue, String comment) {
+            builder.comment(comment);
+            return builder.define(name, defaultValue);
+        }
     }
 }
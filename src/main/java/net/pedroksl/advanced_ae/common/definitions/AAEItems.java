@@ -47,7 +47,7 @@ public class AAEItems {
     public static final ItemDefinition<Item> ADV_PROCESSING_PATTERN = item(
             "Advanced Processing Pattern",
             "adv_processing_pattern",
-            p -> PatternDetailsHelper.encodedPatternItemBuilder(AdvProcessingPattern::new)
+            p -> PatternDetailsHelper.encodedPatternItemBuilder(AdvProcessingPattern::decode)
                     .invalidPatternTooltip(AdvProcessingPattern::getInvalidPatternTooltip)
                     .build());
 
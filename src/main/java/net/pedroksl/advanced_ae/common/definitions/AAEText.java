@@ -35,6 +35,7 @@ public enum AAEText implements LocalizationEnum {
     ClearSidesButtonHint("Disable output from all sides of the machine.", Type.TOOLTIP),
     TankEmpty("Empty", Type.TOOLTIP),
     TankAmount("%s mb / %s mb", Type.TOOLTIP),
+    ParallelCrafts("Parallel crafts: %d / %d", Type.TOOLTIP),
 
     ReactionChamberEnergy("Used Power: %d" + "k FE", Type.EMI_TEXT),
     ShatteredSingularityDescription(
@@ -118,6 +118,12 @@ public class AdvPatternProviderEntity extends AENetworkedBlockEntity implements
         this.logic.clearContent();
     }
 
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        this.logic.onRemoved();
+    }
+
     @Override
     public void onReady() {
         super.onReady();
@@ -203,6 +209,8 @@ public class AdvPatternProviderEntity extends AENetworkedBlockEntity implements
     @Override
     public void setBlockState(BlockState state) {
         super.setBlockState(state);
+        // The push direction may have changed
+        this.logic.invalidatePushTopology();
         onGridConnectableSidesChanged();
     }
 }
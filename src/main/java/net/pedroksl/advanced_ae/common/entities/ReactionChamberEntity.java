@@ -10,6 +10,7 @@ import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.*;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
@@ -18,12 +19,16 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import net.neoforged.neoforge.capabilities.Capabilities;
 import net.neoforged.neoforge.fluids.FluidStack;
+import net.neoforged.neoforge.items.IItemHandler;
+import net.neoforged.neoforge.items.ItemHandlerHelper;
 import net.pedroksl.advanced_ae.common.blocks.ReactionChamberBlock;
 import net.pedroksl.advanced_ae.common.definitions.AAEBlocks;
 import net.pedroksl.advanced_ae.common.definitions.AAEMenus;
 import net.pedroksl.advanced_ae.recipes.ReactionChamberRecipe;
-import net.pedroksl.advanced_ae.recipes.ReactionChamberRecipes;
+import net.pedroksl.advanced_ae.recipes.ReactionChamberRecipeMemo;
 
 import appeng.api.config.*;
 import appeng.api.inventories.ISegmentedInventory;
@@ -63,6 +68,11 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
     private static final int MAX_PROCESSING_STEPS = 200;
     private static final int MAX_POWER_STORAGE = 500000;
     private static final int MAX_TANK_CAPACITY = 16000;
+    /**
+     * How long a full export side is skipped if its neighbor doesn't report any change. Vanilla only reports inventory
+     * changes to horizontal neighbors, so targets above or below rely on this retry alone.
+     */
+    private static final int FULL_SIDE_RETRY_TICKS = 100;
 
     private final IUpgradeInventory upgrades;
     private final IConfigManager configManager;
@@ -83,11 +93,40 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
     private boolean working = false;
     private int processingTime = 0;
     private boolean dirty = false;
+    private boolean batchingChanges = false;
+
+    /**
+     * How many copies of the current recipe the running cycle processes, or 0 while idle.
+     */
+    private int parallelCrafts = 0;
 
     private ReactionChamberRecipe cachedTask = null;
 
+    private final ReactionChamberRecipeMemo recipeMemo = new ReactionChamberRecipeMemo();
+
     private EnumSet<RelativeSide> allowedOutputs = EnumSet.allOf(RelativeSide.class);
 
+    /**
+     * Item handlers of the neighbors, indexed by {@link Direction}, created the first time a side is exported to.
+     */
+    @SuppressWarnings("unchecked")
+    private final BlockCapabilityCache<IItemHandler, Direction>[] exportTargets = new BlockCapabilityCache[6];
+    /**
+     * Whether the neighbor on each side is another reaction chamber, which is never exported to. Checked again when
+     * the capability of that side is invalidated.
+     */
+    private final boolean[] neighborIsChamber = new boolean[6];
+
+    private final boolean[] neighborChecked = new boolean[6];
+    /**
+     * Game time at which each side was found full, or -1. Cleared when the neighbor on that side changes.
+     */
+    private final long[] fullSince = new long[] {-1, -1, -1, -1, -1, -1};
+    /**
+     * The side the next export starts from, so that the result is spread over all the allowed sides.
+     */
+    private int nextExportSide = 0;
+
     public ReactionChamberEntity(BlockEntityType<?> type, BlockPos pos, BlockState blockState) {
         super(type, pos, blockState);
 
@@ -130,6 +169,20 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
         }
     }
 
+    /**
+     * @return How many copies of a recipe a cycle can process at most, doubled by each installed capacity card.
+     */
+    public int getMaxParallelCrafts() {
+        return 1 << this.upgrades.getInstalledUpgrades(AEItems.CAPACITY_CARD);
+    }
+
+    /**
+     * @return How many copies of the current recipe are being processed, or 0 while idle.
+     */
+    public int getParallelCrafts() {
+        return this.parallelCrafts;
+    }
+
     public int getMaxProcessingTime() {
         return MAX_PROCESSING_STEPS;
     }
@@ -217,6 +270,9 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
     }
 
     private void onChangeInventory() {
+        if (this.batchingChanges) {
+            return;
+        }
         this.dirty = true;
 
         getMainNode().ifPresent((grid, node) -> grid.getTickManager().wakeDevice(node));
@@ -258,7 +314,7 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
     }
 
     private ReactionChamberRecipe findRecipe(Level level) {
-        return ReactionChamberRecipes.findRecipe(
+        return recipeMemo.findRecipe(
                 level,
                 this.inputInv.getStackInSlot(0),
                 this.inputInv.getStackInSlot(1),
@@ -281,6 +337,7 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
                     this.setProcessingTime(0);
                     this.setWorking(false);
                     this.cachedTask = null;
+                    this.parallelCrafts = 0;
                 }
             }
             this.dirty = false;
@@ -288,6 +345,14 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
 
         if (this.hasCraftWork()) {
             this.setWorking(true);
+            if (this.getProcessingTime() == 0) {
+                // The copies are fixed when a cycle starts, so that the whole cycle is powered for all of them
+                this.parallelCrafts = computeParallelCrafts(getTask());
+            } else {
+                // Inputs may have been taken out during the cycle, but adding more doesn't add copies. A cycle that
+                // started without a count only processes a single copy.
+                this.parallelCrafts = Math.min(Math.max(1, this.parallelCrafts), computeParallelCrafts(getTask()));
+            }
             getMainNode().ifPresent(grid -> {
                 IEnergyService eg = grid.getEnergyService();
                 IEnergySource src = this;
@@ -304,7 +369,8 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
                 final int progressReq = MAX_PROCESSING_STEPS - this.getProcessingTime();
                 final float powerRatio = progressReq < speedFactor ? (float) progressReq / speedFactor : 1;
                 final int requiredTicks = Mth.ceil((float) MAX_PROCESSING_STEPS / speedFactor);
-                final int powerConsumption = Mth.floor(((float) getTask().getEnergy() / requiredTicks) * powerRatio);
+                final int powerConsumption = Mth.floor(
+                        ((float) getTask().getEnergy() * this.parallelCrafts / requiredTicks) * powerRatio);
                 final double powerThreshold = powerConsumption - 0.01;
                 double powerReq = this.extractAEPower(powerConsumption, Actionable.SIMULATE, PowerMultiplier.CONFIG);
 
@@ -332,53 +398,25 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
                 this.setProcessingTime(0);
                 final ReactionChamberRecipe out = this.getTask();
                 if (out != null) {
-                    final ItemStack outputCopy = out.getResultItem().copy();
-
-                    if (this.outputInv.insertItem(0, outputCopy, false).isEmpty()) {
-                        this.setProcessingTime(0);
-
-                        GenericStack fluid = this.fluidInv.getStack(0);
-                        FluidStack fluidStack = null;
-                        if (fluid != null) {
-                            AEKey aeKey = fluid.what();
-                            if (aeKey instanceof AEFluidKey key) {
-                                fluidStack = key.toStack((int) fluid.amount());
-                            }
-                        }
-
-                        for (var input : out.getValidInputs()) {
-                            for (int x = 0; x < this.inputInv.size(); x++) {
-                                var stack = this.inputInv.getStackInSlot(x);
-                                if (input.checkType(stack)) {
-                                    input.consume(stack);
-                                    this.inputInv.setItemDirect(x, stack);
-                                }
-
-                                if (input.isEmpty()) {
-                                    break;
-                                }
-                            }
-
-                            if (fluidStack != null && !input.isEmpty() && input.checkType(fluidStack)) {
-                                input.consume(fluidStack);
-                            }
-                        }
-
-                        if (fluidStack != null) {
-                            if (fluidStack.isEmpty()) {
-                                this.fluidInv.setStack(0, null);
-                            } else {
-                                this.fluidInv.setStack(
-                                        0,
-                                        new GenericStack(
-                                                Objects.requireNonNull(AEFluidKey.of(fluidStack)),
-                                                fluidStack.getAmount()));
-                            }
+                    final int copies = Math.max(1, this.parallelCrafts);
+                    final ItemStack outputCopy =
+                            out.getResultItem().copyWithCount(out.getResultItem().getCount() * copies);
+
+                    // Only notify once for the output and all the consumed inputs
+                    this.batchingChanges = true;
+                    try {
+                        if (this.outputInv.insertItem(0, outputCopy, false).isEmpty()) {
+                            this.setProcessingTime(0);
+                            consumeInputs(out, copies);
                         }
+                    } finally {
+                        this.batchingChanges = false;
                     }
+                    onChangeInventory();
                 }
                 this.saveChanges();
                 this.cachedTask = null;
+                this.parallelCrafts = 0;
                 this.setWorking(false);
             }
         }
@@ -392,35 +430,212 @@ public class ReactionChamberEntity extends AENetworkedPoweredBlockEntity
                 : this.hasAutoExportWork() ? TickRateModulation.SLOWER : TickRateModulation.SLEEP;
     }
 
+    /**
+     * @return How many copies of the recipe the machine can process at once, limited by the installed capacity cards,
+     * the inputs, the fluid and the space in the output slot.
+     */
+    private int computeParallelCrafts(ReactionChamberRecipe recipe) {
+        var copies = getMaxParallelCrafts();
+        if (copies <= 1) {
+            return 1;
+        }
+
+        var output = recipe.getResultItem();
+        var current = this.outputInv.getStackInSlot(0);
+        var limit = Math.min(this.outputInv.getSlotLimit(0), output.getMaxStackSize());
+        if (!current.isEmpty() && !ItemStack.isSameItemSameComponents(current, output)) {
+            return 1;
+        }
+        copies = Math.min(copies, (limit - current.getCount()) / output.getCount());
+
+        var fluidInput = recipe.getFluid();
+        if (fluidInput != null) {
+            var fluid = this.fluidInv.getStack(0);
+            var available = fluid != null ? fluid.amount() : 0;
+            copies = (int) Math.min(copies, available / fluidInput.getAmount());
+        }
+
+        var matchedSlots = 0;
+        var sharedSlots = false;
+        for (var input : recipe.getConsumedInputs()) {
+            var available = 0;
+            for (int x = 0; x < this.inputInv.size(); x++) {
+                var stack = this.inputInv.getStackInSlot(x);
+                if (!stack.isEmpty() && input.getIngredient().test(stack)) {
+                    available += stack.getCount();
+                    sharedSlots |= (matchedSlots & (1 << x)) != 0;
+                    matchedSlots |= 1 << x;
+                }
+            }
+            copies = Math.min(copies, available / input.getAmount());
+        }
+
+        // A slot matching several ingredients was counted for each of them, check that it covers them all
+        if (copies > 1 && sharedSlots && !hasInputsFor(recipe, copies)) {
+            return 1;
+        }
+        return Math.max(1, copies);
+    }
+
+    private boolean hasInputsFor(ReactionChamberRecipe recipe, int copies) {
+        // Take the inputs from a copy of the slot counts, the same way consumeInputs does
+        var counts = new int[this.inputInv.size()];
+        for (int x = 0; x < counts.length; x++) {
+            counts[x] = this.inputInv.getStackInSlot(x).getCount();
+        }
+        for (var input : recipe.getConsumedInputs()) {
+            var remaining = input.getAmount() * copies;
+            for (int x = 0; x < counts.length && remaining > 0; x++) {
+                if (counts[x] > 0 && input.getIngredient().test(this.inputInv.getStackInSlot(x))) {
+                    var consumed = Math.min(remaining, counts[x]);
+                    counts[x] -= consumed;
+                    remaining -= consumed;
+                }
+            }
+            if (remaining > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the inputs of a finished craft out of the machine. Stacks are shrunk in place, so the caller has to report
+     * the change.
+     */
+    private void consumeInputs(ReactionChamberRecipe recipe, int copies) {
+        for (var input : recipe.getConsumedInputs()) {
+            var remaining = input.getAmount() * copies;
+            for (int x = 0; x < this.inputInv.size() && remaining > 0; x++) {
+                var stack = this.inputInv.getStackInSlot(x);
+                if (!stack.isEmpty() && input.getIngredient().test(stack)) {
+                    var consumed = Math.min(remaining, stack.getCount());
+                    stack.shrink(consumed);
+                    remaining -= consumed;
+                    if (stack.isEmpty()) {
+                        this.inputInv.setItemDirect(x, ItemStack.EMPTY);
+                    }
+                }
+            }
+        }
+
+        var fluidInput = recipe.getFluid();
+        var fluid = this.fluidInv.getStack(0);
+        if (fluidInput != null && fluid != null && fluid.what() instanceof AEFluidKey key) {
+            if (fluidInput.getIngredient().test(key.toStack(1))) {
+                var amount = Math.min((long) fluidInput.getAmount() * copies, fluid.amount());
+                this.fluidInv.extract(0, key, amount, Actionable.MODULATE);
+            }
+        }
+    }
+
     private boolean pushOutResult() {
-        if (!this.hasAutoExportWork()) {
+        if (!this.hasAutoExportWork() || !(this.level instanceof ServerLevel serverLevel)) {
             return false;
         }
 
         var orientation = this.getOrientation();
+        var sides = RelativeSide.values();
+
+        for (int i = 0; i < sides.length; i++) {
+            var side = sides[(nextExportSide + i) % sides.length];
+            if (!allowedOutputs.contains(side)) {
+                continue;
+            }
 
-        for (var side : allowedOutputs) {
             var dir = orientation.getSide(side);
-            var targetPos = getBlockPos().relative(dir);
-            BlockEntity te = level.getBlockEntity(targetPos);
-            if (te instanceof ReactionChamberEntity) continue;
+            if (isSideFull(dir)) {
+                continue;
+            }
 
-            var target = InternalInventory.wrapExternal(level, getBlockPos().relative(dir), dir.getOpposite());
+            var target = getExportTarget(serverLevel, dir);
+            if (target == null) {
+                continue;
+            }
 
-            if (target != null) {
-                int startItems = this.outputInv.getStackInSlot(0).getCount();
-                this.outputInv.insertItem(0, target.addItems(this.outputInv.extractItem(0, 64, false)), false);
-                int endItems = this.outputInv.getStackInSlot(0).getCount();
+            // Only take out what the target says it accepts
+            var stack = this.outputInv.getStackInSlot(0);
+            var accepted = stack.getCount()
+                    - ItemHandlerHelper.insertItem(target, stack.copy(), true).getCount();
+            if (accepted <= 0) {
+                this.fullSince[dir.get3DDataValue()] = level.getGameTime();
+                continue;
+            }
 
-                if (startItems != endItems) {
-                    return true;
-                }
+            var remainder = ItemHandlerHelper.insertItem(target, this.outputInv.extractItem(0, accepted, false), false);
+            if (!remainder.isEmpty()) {
+                this.outputInv.insertItem(0, remainder, false);
+            }
+
+            if (remainder.getCount() < accepted) {
+                this.nextExportSide = (side.ordinal() + 1) % sides.length;
+                return true;
             }
         }
 
         return false;
     }
 
+    @Nullable
+    private IItemHandler getExportTarget(ServerLevel level, Direction dir) {
+        var index = dir.get3DDataValue();
+        if (this.exportTargets[index] == null) {
+            this.exportTargets[index] = BlockCapabilityCache.create(
+                    Capabilities.ItemHandler.BLOCK,
+                    level,
+                    getBlockPos().relative(dir),
+                    dir.getOpposite(),
+                    () -> !this.isRemoved(),
+                    () -> onExportTargetInvalidated(dir));
+        }
+        if (!this.neighborChecked[index]) {
+            this.neighborIsChamber[index] =
+                    level.getBlockEntity(getBlockPos().relative(dir)) instanceof ReactionChamberEntity;
+            this.neighborChecked[index] = true;
+        }
+        return this.neighborIsChamber[index] ? null : this.exportTargets[index].getCapability();
+    }
+
+    private void onExportTargetInvalidated(Direction dir) {
+        this.neighborChecked[dir.get3DDataValue()] = false;
+        onExportTargetChanged(dir);
+    }
+
+    private boolean isSideFull(Direction dir) {
+        var since = this.fullSince[dir.get3DDataValue()];
+        if (since < 0) {
+            return false;
+        }
+        if (level.getGameTime() - since >= FULL_SIDE_RETRY_TICKS) {
+            this.fullSince[dir.get3DDataValue()] = -1;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Called when a neighbor changed, so that a full side is tried again. Changes to the contents of a neighbor are
+     * only reported for horizontal neighbors.
+     */
+    public void onNeighborChanged(BlockPos neighbor) {
+        for (var dir : Direction.values()) {
+            if (getBlockPos().relative(dir).equals(neighbor)) {
+                onExportTargetChanged(dir);
+                return;
+            }
+        }
+    }
+
+    private void onExportTargetChanged(Direction dir) {
+        var index = dir.get3DDataValue();
+        if (this.fullSince[index] >= 0) {
+            this.fullSince[index] = -1;
+            if (hasAutoExportWork()) {
+                getMainNode().ifPresent((grid, node) -> grid.getTickManager().wakeDevice(node));
+            }
+        }
+    }
+
     @Override
     public IConfigManager getConfigManager() {
         return this.configManager;
@@ -1,6 +1,11 @@
 package net.pedroksl.advanced_ae.common.logic;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -9,18 +14,24 @@ import com.google.common.base.Preconditions;
 
 import org.jetbrains.annotations.Nullable;
 
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.Level;
 import net.pedroksl.advanced_ae.common.cluster.AdvCraftingCPU;
+import net.pedroksl.advanced_ae.common.definitions.AAEConfig;
+import net.pedroksl.advanced_ae.common.patterns.AdvProcessingPattern;
 
 import appeng.api.config.Actionable;
 import appeng.api.config.PowerMultiplier;
+import appeng.api.crafting.IPatternDetails;
 import appeng.api.features.IPlayerRegistry;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.crafting.ICraftingLink;
 import appeng.api.networking.crafting.ICraftingPlan;
+import appeng.api.networking.crafting.ICraftingProvider;
 import appeng.api.networking.crafting.ICraftingRequester;
 import appeng.api.networking.crafting.ICraftingSubmitResult;
 import appeng.api.networking.energy.IEnergyService;
@@ -34,6 +45,7 @@ import appeng.core.network.clientbound.CraftingJobStatusPacket;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.execution.*;
 import appeng.crafting.inv.ListCraftingInventory;
+import appeng.crafting.pattern.AEProcessingPattern;
 import appeng.hooks.ticking.TickHandler;
 import appeng.me.service.CraftingService;
 
@@ -53,8 +65,35 @@ public class AdvCraftingCPULogic {
      * Used crafting operations over the last 3 ticks.
      */
     private final int[] usedOps = new int[3];
+    /**
+     * Power already extracted from the grid for the patterns of the current tick, when the energy budget is enabled.
+     */
+    private double energyBudget = 0;
+    /**
+     * Patterns that were recently rejected by a provider, and when to try them again. A successful push to a provider
+     * clears all of its entries.
+     */
+    private final Map<ICraftingProvider, Map<IPatternDetails, ProviderBackoff>> providerBackoff = new HashMap<>();
+    /**
+     * Tick after which {@link #providerBackoff} is next searched for expired entries.
+     */
+    private long nextBackoffPrune = 0;
+    /**
+     * Tasks whose inputs were already extracted by {@link #planCrafting}, to be pushed first during the next tick.
+     */
+    private final Queue<PlannedTask> plannedTasks = new ArrayDeque<>();
+    /**
+     * While planning off the server thread, changes are collected here instead of being sent to the listeners.
+     */
+    private final Set<AEKey> deferredChanges = new HashSet<>();
+
+    private boolean deferChanges = false;
 
     private final Set<Consumer<AEKey>> listeners = new HashSet<>();
+
+    @Nullable
+    private WaitingForListener waitingForListener = null;
+
     /**
      * True if the CPU is currently trying to clear its inventory but is not able to.
      */
@@ -89,7 +128,8 @@ public class AdvCraftingCPULogic {
                 .orElse(null);
         var craftId = UUID.randomUUID();
         var linkCpu = new CraftingLink(CraftingCpuHelper.generateLinkData(craftId, requester == null, false), cpu);
-        this.job = new ExecutingCraftingJob(plan, this::postChange, linkCpu, playerId);
+        this.job = new ExecutingCraftingJob(plan, this::postWaitingForChange, linkCpu, playerId);
+        postAllWaitingFor(this.job);
         cpu.updateOutput(plan.finalOutput());
         cpu.markDirty();
 
@@ -150,10 +190,14 @@ public class AdvCraftingCPULogic {
         this.usedOps[2] = this.usedOps[1];
         this.usedOps[1] = this.usedOps[0];
         this.usedOps[0] = started - remainingOperations;
+
+        settleEnergyBudget(eg);
     }
 
     /**
      * Try to push patterns into available interfaces, i.e. do the actual crafting execution.
+     * <p/>
+     * Only the tasks queued in {@link ExecutingCraftingJob#readyTasks} are visited, each at most once per call.
      *
      * @return How many patterns were successfully pushed.
      */
@@ -163,79 +207,407 @@ public class AdvCraftingCPULogic {
         if (job == null) return 0;
 
         var pushedPatterns = 0;
+        var useBudget = AAEConfig.instance().isQuantumComputerEnergyBudget();
+        var maxBackoff = AAEConfig.instance().getQuantumComputerMaxProviderBackoff();
+        var currentTick = TickHandler.instance().getCurrentTick();
+        var expectedOutputs = new KeyCounter();
+        var expectedContainerItems = new KeyCounter();
+        pruneBackoff(currentTick, maxBackoff);
 
-        var it = job.tasks.entrySet().iterator();
         taskLoop:
-        while (it.hasNext()) {
-            var task = it.next();
-            if (task.getValue().value <= 0) {
-                it.remove();
-                continue;
+        for (int visits = plannedTasks.size() + job.readyTasks.size(); visits > 0; visits--) {
+            // Planned tasks already had their inputs extracted, push them first.
+            var planned = plannedTasks.poll();
+            var details = planned != null ? planned.details() : job.readyTasks.poll();
+            if (details == null) break;
+
+            var task = job.tasks.get(details);
+            if (planned == null) {
+                if (task == null) continue;
+                if (task.value <= 0) {
+                    job.removeTask(details);
+                    continue;
+                }
             }
 
-            var details = task.getKey();
-            var expectedOutputs = new KeyCounter();
-            var expectedContainerItems = new KeyCounter();
+            expectedOutputs.reset();
+            expectedContainerItems.reset();
             // Contains the inputs for the pattern.
-            @Nullable
-            var craftingContainer = CraftingCpuHelper.extractPatternInputs(
-                    details, inventory, level, expectedOutputs, expectedContainerItems);
+            @Nullable KeyCounter[] craftingContainer;
+            if (planned != null) {
+                craftingContainer = planned.craftingContainer();
+                expectedOutputs.addAll(planned.expectedOutputs());
+                expectedContainerItems.addAll(planned.expectedContainerItems());
+            } else {
+                craftingContainer = extractPatternInputs(job, details, level, expectedOutputs, expectedContainerItems);
+            }
 
             // Try to push to each provider.
             for (var provider : craftingService.getProviders(details)) {
                 if (craftingContainer == null) break;
-                if (provider.isBusy()) continue;
+                if (isBackingOff(provider, details, currentTick)) continue;
+                if (provider.isBusy()) {
+                    backOff(provider, details, currentTick, maxBackoff);
+                    continue;
+                }
 
                 var patternPower = CraftingCpuHelper.calculatePatternPower(craftingContainer);
 
-                if (energyService.extractAEPower(patternPower, Actionable.SIMULATE, PowerMultiplier.CONFIG)
+                if (useBudget) {
+                    if (!reservePatternPower(energyService, patternPower, maxPatterns - pushedPatterns)) break;
+                } else if (energyService.extractAEPower(patternPower, Actionable.SIMULATE, PowerMultiplier.CONFIG)
                         < patternPower - 0.01) break;
 
-                if (provider.pushPattern(details, craftingContainer)) {
-                    energyService.extractAEPower(patternPower, Actionable.MODULATE, PowerMultiplier.CONFIG);
-                    pushedPatterns++;
+                // Push several copies at once if the provider and the task allow it
+                var pushed = 0;
+                var maxCopies = task != null ? (int) Math.min(task.value, maxPatterns - pushedPatterns) : 1;
+                if (maxCopies > 1
+                        && provider instanceof AdvPatternProviderLogic advProvider
+                        && advProvider.canPushPatternCopies(details)) {
+                    pushed = pushPatternCopies(
+                            job,
+                            advProvider,
+                            details,
+                            craftingContainer,
+                            maxCopies,
+                            patternPower,
+                            energyService,
+                            useBudget,
+                            level);
+                }
 
-                    for (var expectedOutput : expectedOutputs) {
-                        job.waitingFor.insert(
-                                expectedOutput.getKey(), expectedOutput.getLongValue(), Actionable.MODULATE);
-                    }
-                    for (var expectedContainerItem : expectedContainerItems) {
-                        job.waitingFor.insert(
-                                expectedContainerItem.getKey(),
-                                expectedContainerItem.getLongValue(),
-                                Actionable.MODULATE);
-                        job.timeTracker.addMaxItems(expectedContainerItem.getLongValue());
+                if (pushed == 0 && provider.pushPattern(details, craftingContainer)) {
+                    if (useBudget) {
+                        energyBudget = Math.max(0, energyBudget - patternPower);
+                    } else {
+                        energyService.extractAEPower(patternPower, Actionable.MODULATE, PowerMultiplier.CONFIG);
                     }
+                    pushed = 1;
+                }
+
+                if (pushed > 0) {
+                    // Copies pushed together already waited for their own outputs, this is the first one
+                    addWaitingFor(job, expectedOutputs, expectedContainerItems);
+                    providerBackoff.remove(provider);
+                    pushedPatterns += pushed;
 
                     cpu.markDirty();
 
-                    task.getValue().value--;
-                    if (task.getValue().value <= 0) {
-                        it.remove();
+                    if (job.decrementTask(details, task, pushed)) {
                         continue taskLoop;
                     }
 
                     if (pushedPatterns == maxPatterns) {
+                        // We don't know if the inputs are still there, let the next call find out.
+                        job.readyTasks.requeue(details);
                         break taskLoop;
                     }
 
                     // Prepare next inputs.
                     expectedOutputs.reset();
                     expectedContainerItems.reset();
-                    craftingContainer = CraftingCpuHelper.extractPatternInputs(
-                            details, inventory, level, expectedOutputs, expectedContainerItems);
+                    craftingContainer =
+                            extractPatternInputs(job, details, level, expectedOutputs, expectedContainerItems);
+                } else {
+                    backOff(provider, details, currentTick, maxBackoff);
                 }
             }
 
-            // Failed to push this pattern, reinject the inputs.
             if (craftingContainer != null) {
-                CraftingCpuHelper.reinjectPatternInputs(inventory, craftingContainer);
+                // Failed to push this pattern, reinject the inputs and try again later.
+                reinjectPatternInputs(job, craftingContainer);
+                job.readyTasks.requeue(details);
             }
+            // Otherwise the inputs are missing, the task stays parked until one of them changes.
         }
 
+        returnPlannedInputs(job);
+
         return pushedPatterns;
     }
 
+    /**
+     * Extracts the inputs of more copies of a pattern next to the ones already extracted, and tries to push all of them
+     * to the provider at once.
+     *
+     * @param craftingContainer The inputs of the first copy. They are only used if the copies are pushed, and the
+     *                          caller still has to wait for the outputs of the first copy.
+     * @return The amount of copies that were pushed, or 0 if the provider should get single pushes instead.
+     */
+    private int pushPatternCopies(
+            ExecutingCraftingJob job,
+            AdvPatternProviderLogic provider,
+            IPatternDetails details,
+            KeyCounter[] craftingContainer,
+            int maxCopies,
+            double patternPower,
+            IEnergyService energyService,
+            boolean useBudget,
+            Level level) {
+        var extraInputs = new KeyCounter[craftingContainer.length];
+        for (int i = 0; i < extraInputs.length; i++) {
+            extraInputs[i] = new KeyCounter();
+        }
+        var expectedOutputs = new KeyCounter();
+        var expectedContainerItems = new KeyCounter();
+
+        var copies = 1;
+        while (copies < maxCopies) {
+            var inputs = extractPatternInputs(job, details, level, expectedOutputs, expectedContainerItems);
+            if (inputs == null) break;
+            for (int i = 0; i < inputs.length; i++) {
+                extraInputs[i].addAll(inputs[i]);
+            }
+            copies++;
+        }
+        if (copies == 1) {
+            return 0;
+        }
+
+        var batchPower = patternPower * copies;
+        var hasPower = useBudget
+                ? reservePatternPower(energyService, batchPower, 1)
+                : energyService.extractAEPower(batchPower, Actionable.SIMULATE, PowerMultiplier.CONFIG)
+                        >= batchPower - 0.01;
+
+        var batch = new KeyCounter[craftingContainer.length];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new KeyCounter();
+            batch[i].addAll(craftingContainer[i]);
+            batch[i].addAll(extraInputs[i]);
+        }
+
+        if (!hasPower || !provider.pushPatternCopies(details, batch, copies)) {
+            reinjectPatternInputs(job, extraInputs);
+            return 0;
+        }
+
+        if (useBudget) {
+            energyBudget = Math.max(0, energyBudget - batchPower);
+        } else {
+            energyService.extractAEPower(batchPower, Actionable.MODULATE, PowerMultiplier.CONFIG);
+        }
+
+        addWaitingFor(job, expectedOutputs, expectedContainerItems);
+        return copies;
+    }
+
+    private void addWaitingFor(
+            ExecutingCraftingJob job, KeyCounter expectedOutputs, KeyCounter expectedContainerItems) {
+        for (var expectedOutput : expectedOutputs) {
+            job.waitingFor.insert(expectedOutput.getKey(), expectedOutput.getLongValue(), Actionable.MODULATE);
+        }
+        for (var expectedContainerItem : expectedContainerItems) {
+            job.waitingFor.insert(
+                    expectedContainerItem.getKey(), expectedContainerItem.getLongValue(), Actionable.MODULATE);
+            job.timeTracker.addMaxItems(expectedContainerItem.getLongValue());
+        }
+    }
+
+    /**
+     * Extracts the inputs of the tasks that are likely to run during the next tick ahead of time, so that
+     * {@link #executeCrafting} only has to push them.
+     * <p/>
+     * This only touches the private inventory of this CPU and may therefore run off the server thread, in parallel
+     * with other CPUs. Only processing patterns are planned, since crafting patterns may look up recipes in the level.
+     * Inventory changes are kept until {@link #flushDeferredChanges} is called on the server thread.
+     */
+    public void planCrafting(Level level) {
+        var job = this.job;
+        if (job == null || !plannedTasks.isEmpty()) return;
+
+        var remainingOperations = cpu.getCoProcessors() + 1 - (this.usedOps[0] + this.usedOps[1] + this.usedOps[2]);
+
+        deferChanges = true;
+        try {
+            for (int visits = job.readyTasks.size();
+                    visits > 0 && plannedTasks.size() < remainingOperations;
+                    visits--) {
+                var details = job.readyTasks.poll();
+                if (details == null) break;
+
+                var task = job.tasks.get(details);
+                if (task == null) continue;
+                if (task.value <= 0) {
+                    job.removeTask(details);
+                    continue;
+                }
+                if (!(details instanceof AEProcessingPattern) && !(details instanceof AdvProcessingPattern)) {
+                    // Left for the server thread.
+                    job.readyTasks.requeue(details);
+                    continue;
+                }
+
+                var expectedOutputs = new KeyCounter();
+                var expectedContainerItems = new KeyCounter();
+                var craftingContainer =
+                        extractPatternInputs(job, details, level, expectedOutputs, expectedContainerItems);
+                if (craftingContainer != null) {
+                    plannedTasks.add(
+                            new PlannedTask(details, craftingContainer, expectedOutputs, expectedContainerItems));
+                }
+                // Otherwise the inputs are missing, the task stays parked until one of them changes.
+            }
+        } finally {
+            deferChanges = false;
+        }
+    }
+
+    /**
+     * @return True if {@link #planCrafting} has anything to do this tick.
+     */
+    public boolean canPlanCrafting() {
+        return job != null && plannedTasks.isEmpty() && cpu.isActive() && !job.link.isCanceled();
+    }
+
+    /**
+     * Sends the inventory changes made by {@link #planCrafting} to the listeners.
+     */
+    public void flushDeferredChanges() {
+        for (var what : deferredChanges) {
+            for (var listener : listeners) {
+                listener.accept(what);
+            }
+        }
+        deferredChanges.clear();
+    }
+
+    /**
+     * Puts the inputs of planned tasks that didn't get to run back into the inventory.
+     */
+    private void returnPlannedInputs(ExecutingCraftingJob job) {
+        PlannedTask planned;
+        while ((planned = plannedTasks.poll()) != null) {
+            reinjectPatternInputs(job, planned.craftingContainer());
+            job.readyTasks.requeue(planned.details());
+        }
+    }
+
+    private boolean isBackingOff(ICraftingProvider provider, IPatternDetails details, long currentTick) {
+        var patterns = providerBackoff.get(provider);
+        var backoff = patterns != null ? patterns.get(details) : null;
+        if (backoff == null) {
+            return false;
+        }
+        if (provider instanceof AdvPatternProviderLogic logic && logic.getStateVersion() != backoff.stateVersion) {
+            // Something changed, start over
+            providerBackoff.remove(provider);
+            return false;
+        }
+        if (isExpired(backoff, currentTick)) {
+            patterns.remove(details);
+            if (patterns.isEmpty()) {
+                providerBackoff.remove(provider);
+            }
+            return false;
+        }
+        // Keep the entry for a while once the wait is over, so that it backs off longer if it rejects the pattern again
+        return currentTick < backoff.retryTick;
+    }
+
+    /**
+     * @return True once a back-off has been over for as long as it lasted, without the pattern being rejected again.
+     */
+    private static boolean isExpired(ProviderBackoff backoff, long currentTick) {
+        return currentTick >= backoff.retryTick + backoff.ticks;
+    }
+
+    /**
+     * Drops expired back-offs, including the ones of providers that aren't asked anymore, e.g. because they were
+     * unloaded.
+     */
+    private void pruneBackoff(long currentTick, int maxBackoff) {
+        if (providerBackoff.isEmpty() || currentTick < nextBackoffPrune) {
+            return;
+        }
+        nextBackoffPrune = currentTick + Math.max(maxBackoff, 20);
+
+        for (var it = providerBackoff.values().iterator(); it.hasNext(); ) {
+            var patterns = it.next();
+            patterns.values().removeIf(backoff -> isExpired(backoff, currentTick));
+            if (patterns.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Skips a pattern on a provider that rejected it for an exponentially growing amount of ticks, until the provider
+     * signals that its state changed or accepts any pattern.
+     */
+    private void backOff(ICraftingProvider provider, IPatternDetails details, long currentTick, int maxBackoff) {
+        if (maxBackoff <= 0) {
+            return;
+        }
+
+        var backoff = providerBackoff
+                .computeIfAbsent(provider, p -> new HashMap<>())
+                .computeIfAbsent(details, d -> new ProviderBackoff());
+        backoff.ticks = backoff.ticks == 0 ? 1 : Math.min(backoff.ticks * 2, maxBackoff);
+        backoff.retryTick = currentTick + backoff.ticks;
+        backoff.stateVersion = provider instanceof AdvPatternProviderLogic logic ? logic.getStateVersion() : 0;
+    }
+
+    /**
+     * Makes sure the energy budget covers a pattern. When it doesn't, enough power for the remaining patterns of the
+     * tick is reserved from the grid at once.
+     *
+     * @return False if the grid doesn't have enough power for the pattern.
+     */
+    private boolean reservePatternPower(IEnergyService energyService, double patternPower, int remainingPatterns) {
+        if (energyBudget >= patternPower - 0.01) {
+            return true;
+        }
+
+        var reserve = patternPower * remainingPatterns - energyBudget;
+        energyBudget += energyService.extractAEPower(reserve, Actionable.MODULATE, PowerMultiplier.CONFIG);
+        return energyBudget >= patternPower - 0.01;
+    }
+
+    /**
+     * Returns the power that was reserved but not used during this tick to the grid.
+     */
+    private void settleEnergyBudget(IEnergyService energyService) {
+        if (energyBudget > 0) {
+            energyService.injectPower(PowerMultiplier.CONFIG.multiply(energyBudget), Actionable.MODULATE);
+            energyBudget = 0;
+        }
+    }
+
+    @Nullable
+    private KeyCounter[] extractPatternInputs(
+            ExecutingCraftingJob job,
+            IPatternDetails details,
+            Level level,
+            KeyCounter expectedOutputs,
+            KeyCounter expectedContainerItems) {
+        // Items moving around inside the CPU can't make other tasks ready, don't wake them up.
+        job.readyTasks.setMuted(true);
+        try {
+            return CraftingCpuHelper.extractPatternInputs(
+                    details, inventory, level, expectedOutputs, expectedContainerItems);
+        } finally {
+            job.readyTasks.setMuted(false);
+        }
+    }
+
+    private void reinjectPatternInputs(ExecutingCraftingJob job, KeyCounter[] craftingContainer) {
+        job.readyTasks.setMuted(true);
+        try {
+            CraftingCpuHelper.reinjectPatternInputs(inventory, craftingContainer);
+        } finally {
+            job.readyTasks.setMuted(false);
+        }
+
+        // Other tasks may have been parked while these inputs were set aside, e.g. by planCrafting
+        for (var inputList : craftingContainer) {
+            if (inputList == null) continue;
+            for (var input : inputList) {
+                job.readyTasks.onChange(input.getKey());
+            }
+        }
+    }
+
     /**
      * Called by the CraftingService with an Integer.MAX_VALUE priority to inject items that are being waited for.
      *
@@ -313,22 +685,34 @@ public class AdvCraftingCPULogic {
 
         // TODO: log
 
+        // The job no longer waits for anything once it is gone, but the listener can only tell after this.job is
+        // cleared, so remember the keys and replay them afterwards.
+        var waitingKeys = new ArrayList<AEKey>();
+        for (var entry : job.waitingFor.list) {
+            waitingKeys.add(entry.getKey());
+        }
+
         // Clear waitingFor list and post all the relevant changes.
         if (!success) {
             job.waitingFor.clear();
         }
         // Notify opened menus of cancelled scheduled tasks.
-        for (var entry : job.tasks.entrySet()) {
-            for (var output : entry.getKey().getOutputs()) {
-                postChange(output.what());
-            }
+        for (var what : job.pendingOutputs.keySet()) {
+            postChange(what);
         }
 
         notifyJobOwner(
                 job, success ? CraftingJobStatusPacket.Status.FINISHED : CraftingJobStatusPacket.Status.CANCELLED);
 
         // Finish job.
+        returnPlannedInputs(job);
+        providerBackoff.clear();
         this.job = null;
+        if (waitingForListener != null) {
+            for (var what : waitingKeys) {
+                waitingForListener.onWaitingForChanged(this, what);
+            }
+        }
 
         // Store all remaining items.
         this.storeItems();
@@ -374,11 +758,48 @@ public class AdvCraftingCPULogic {
 
     private void postChange(AEKey what) {
         lastModifiedOnTick = TickHandler.instance().getCurrentTick();
+        if (deferChanges) {
+            // Planning only moves items out of the inventory, which never makes a task ready.
+            deferredChanges.add(what);
+            return;
+        }
+        if (job != null) {
+            job.readyTasks.onChange(what);
+        }
         for (var listener : listeners) {
             listener.accept(what);
         }
     }
 
+    private void postWaitingForChange(AEKey what) {
+        postChange(what);
+        if (waitingForListener != null) {
+            waitingForListener.onWaitingForChanged(this, what);
+        }
+    }
+
+    /**
+     * Lets the waiting-for listener know about every key of the job, e.g. after the job was created or finished.
+     */
+    private void postAllWaitingFor(ExecutingCraftingJob job) {
+        if (waitingForListener != null) {
+            for (var entry : job.waitingFor.list) {
+                waitingForListener.onWaitingForChanged(this, entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Sets the listener that keeps track of which CPUs are waiting for which keys. The listener is immediately told
+     * about the keys the current job is already waiting for.
+     */
+    public void setWaitingForListener(@Nullable WaitingForListener listener) {
+        this.waitingForListener = listener;
+        if (this.job != null) {
+            postAllWaitingFor(this.job);
+        }
+    }
+
     public long getLastModifiedOnTick() {
         return lastModifiedOnTick;
     }
@@ -403,7 +824,9 @@ public class AdvCraftingCPULogic {
     public void readFromNBT(CompoundTag data, HolderLookup.Provider registries) {
         this.inventory.readFromNBT(data.getList("inventory", 10), registries);
         if (data.contains("job")) {
-            this.job = new ExecutingCraftingJob(data.getCompound("job"), registries, this::postChange, this);
+            this.job = new ExecutingCraftingJob(
+                    data.getCompound("job"), registries, this::postWaitingForChange, this);
+            postAllWaitingFor(this.job);
             if (this.job.finalOutput == null) {
                 finishJob(false);
             } else {
@@ -464,17 +887,10 @@ public class AdvCraftingCPULogic {
     }
 
     public long getPendingOutputs(AEKey template) {
-        long count = 0;
         if (this.job != null) {
-            for (var t : job.tasks.entrySet()) {
-                for (var output : t.getKey().getOutputs()) {
-                    if (template.matches(output)) {
-                        count += output.amount() * t.getValue().value;
-                    }
-                }
-            }
+            return this.job.getPendingOutputs(template);
         }
-        return count;
+        return 0;
     }
 
     /**
@@ -484,10 +900,8 @@ public class AdvCraftingCPULogic {
         out.addAll(this.inventory.list);
         if (this.job != null) {
             out.addAll(job.waitingFor.list);
-            for (var t : job.tasks.entrySet()) {
-                for (var output : t.getKey().getOutputs()) {
-                    out.add(output.what(), output.amount() * t.getValue().value);
-                }
+            for (var entry : Object2LongMaps.fastIterable(job.pendingOutputs)) {
+                out.add(entry.getKey(), entry.getLongValue());
             }
         }
     }
@@ -521,4 +935,25 @@ public class AdvCraftingCPULogic {
     public void markForDeletion() {
         this.markedForDeletion = true;
     }
+
+    private record PlannedTask(
+            IPatternDetails details,
+            KeyCounter[] craftingContainer,
+            KeyCounter expectedOutputs,
+            KeyCounter expectedContainerItems) {}
+
+    private static class ProviderBackoff {
+        private int ticks;
+        private long retryTick;
+        private int stateVersion;
+    }
+
+    /**
+     * Notified whenever a key may have been added to or removed from what a CPU is waiting for. Use
+     * {@link #getWaitingFor} to find out which one it was.
+     */
+    @FunctionalInterface
+    public interface WaitingForListener {
+        void onWaitingForChanged(AdvCraftingCPULogic logic, AEKey what);
+    }
 }
@@ -6,6 +6,9 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
@@ -21,8 +24,13 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.component.ItemContainerContents;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import net.pedroksl.advanced_ae.common.definitions.AAEConfig;
+import net.pedroksl.advanced_ae.common.patterns.AdvProcessingPattern;
 import net.pedroksl.advanced_ae.common.patterns.IAdvPatternDetails;
+import net.pedroksl.advanced_ae.common.patterns.InputSideLayout;
 
+import appeng.api.AECapabilities;
 import appeng.api.config.Actionable;
 import appeng.api.config.LockCraftingMode;
 import appeng.api.config.Setting;
@@ -52,6 +60,7 @@ import appeng.core.definitions.AEItems;
 import appeng.core.localization.GuiText;
 import appeng.core.localization.PlayerMessages;
 import appeng.core.settings.TickRates;
+import appeng.crafting.pattern.AEProcessingPattern;
 import appeng.helpers.InterfaceLogicHost;
 import appeng.helpers.patternprovider.*;
 import appeng.me.helpers.MachineSource;
@@ -90,14 +99,27 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
      */
     private final Set<AEKey> patternInputs = new HashSet<>();
     // Pattern sending logic
-    private final List<GenericStack> sendList = new ArrayList<>();
+    /**
+     * What a push couldn't insert right away, one entry per key so that fragments of the same key get sent together.
+     */
+    private final Object2LongLinkedOpenHashMap<AEKey> sendList = new Object2LongLinkedOpenHashMap<>();
     private Direction sendDirection;
-    private HashMap<AEKey, Direction> directionMap = new HashMap<>();
+    private Map<AEKey, Direction> directionMap = new HashMap<>();
     // Stack returning logic
     private final PatternProviderReturnInventory returnInv;
 
     private final AdvPatternProviderTargetCache[] targetCaches = new AdvPatternProviderTargetCache[6];
 
+    @SuppressWarnings("unchecked")
+    private final BlockCapabilityCache<ICraftingMachine, Direction>[] craftingMachineCaches =
+            new BlockCapabilityCache[6];
+
+    /**
+     * The neighbors patterns get pushed to. Resolved on the first push, and dropped whenever they might have changed.
+     */
+    @Nullable
+    private PushTopology pushTopology = null;
+
     private YesNo redstoneState = YesNo.UNDECIDED;
 
     @Nullable
@@ -108,6 +130,56 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
 
     private int roundRobinIndex = 0;
 
+    /**
+     * Incremented whenever something happens that may let this provider accept patterns again.
+     */
+    private int stateVersion = 0;
+
+    /**
+     * Index of {@link #patterns}, along with what {@link #pushPattern} needs to know about each pattern.
+     */
+    private final Map<IPatternDetails, PushPlan> pushPlans = new HashMap<>();
+
+    private long insertDisagreements = 0;
+
+    /**
+     * State of the push that {@link #pushSink} is currently inserting, reused for every push.
+     */
+    @Nullable
+    private PatternProviderTarget pushTarget;
+    /**
+     * What the target of the current push accepted while simulating, for each key, or nothing if its simulations
+     * aren't used to drive the real insertion.
+     */
+    private final KeyCounter pushAccepted = new KeyCounter();
+
+    private boolean pushFromSimulation;
+
+    private final IPatternDetails.PatternInputSink pushSink = this::pushInput;
+
+    private final PatternProviderStats stats = new PatternProviderStats();
+
+    /**
+     * Ticker calls in a row that couldn't move anything. Once it reaches the configured limit, the provider only
+     * retries at the idle rate until something around it changes.
+     */
+    private int noProgressCalls = 0;
+
+    /**
+     * Ticks between the last two ticker calls, or 0 while the ticker is asleep.
+     */
+    private int tickInterval = 0;
+
+    /**
+     * Ticks since the last retry while idle.
+     */
+    private int idleTicks = 0;
+
+    /**
+     * Total amount the last flush of the send list inserted.
+     */
+    private long lastSentAmount = 0;
+
     public AdvPatternProviderLogic(IManagedGridNode mainNode, AdvPatternProviderLogicHost host) {
         this(mainNode, host, 36);
     }
@@ -128,6 +200,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
                 .build();
 
         this.returnInv = new PatternProviderReturnInventory(() -> {
+            this.stateVersion++;
             this.mainNode.ifPresent((grid, node) -> grid.getTickManager().alertDevice(node));
             this.host.saveChanges();
         });
@@ -139,6 +212,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
 
     public void setPriority(int priority) {
         this.priority = priority;
+        this.stateVersion++;
         this.host.saveChanges();
 
         ICraftingProvider.requestUpdate(mainNode);
@@ -160,8 +234,9 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
         }
 
         ListTag sendListTag = new ListTag();
-        for (var toSend : sendList) {
-            sendListTag.add(GenericStack.writeTag(registries, toSend));
+        for (var toSend : Object2LongMaps.fastIterable(sendList)) {
+            var stack = new GenericStack(toSend.getKey(), toSend.getLongValue());
+            sendListTag.add(GenericStack.writeTag(registries, stack));
         }
         tag.put(NBT_SEND_LIST, sendListTag);
 
@@ -222,6 +297,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
             sendDirection = Direction.from3DDataValue(tag.getByte(NBT_SEND_DIRECTION));
         }
 
+        var directionMap = new HashMap<AEKey, Direction>();
         ListTag listTag = tag.getList(NBT_DIRECTION_MAP, Tag.TAG_COMPOUND);
         for (int x = 0; x < listTag.size(); x++) {
             CompoundTag compTag = listTag.getCompound(x);
@@ -230,8 +306,9 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
             var dirTag = compTag.getByte("dir");
             Direction dir = dirTag == -1 ? null : Direction.from3DDataValue(dirTag);
 
-            this.directionMap.put(key, dir);
+            directionMap.put(key, dir);
         }
+        this.directionMap = directionMap;
 
         this.returnInv.readFromTag(tag.getList(NBT_RETURN_INV, Tag.TAG_COMPOUND), registries);
     }
@@ -262,8 +339,10 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
     }
 
     public void updatePatterns() {
+        stateVersion++;
         patterns.clear();
         patternInputs.clear();
+        pushPlans.clear();
 
         for (var stack : this.patternInventory) {
             var details = PatternDetailsHelper.decodePattern(
@@ -271,6 +350,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
 
             if (details != null) {
                 patterns.add(details);
+                pushPlans.putIfAbsent(details, PushPlan.of(details));
 
                 for (var iinput : details.getInputs()) {
                     for (var inputCandidate : iinput.getPossibleInputs()) {
@@ -294,126 +374,306 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
     }
 
     /**
-     * Apply round-robin to list.
+     * @return The index of the n-th (0-based) set bit of the mask.
      */
-    private <T> void rearrangeRoundRobin(List<T> list) {
-        if (list.isEmpty()) {
-            return;
+    private static int nthSetBit(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
         }
-
-        roundRobinIndex %= list.size();
-        for (int i = 0; i < roundRobinIndex; ++i) {
-            list.add(list.get(i));
-        }
-        list.subList(0, roundRobinIndex).clear();
+        return Integer.numberOfTrailingZeros(mask);
     }
 
     @Override
     public boolean pushPattern(IPatternDetails patternDetails, KeyCounter[] inputHolder) {
-        if (!sendList.isEmpty() || !this.mainNode.isActive() || !this.patterns.contains(patternDetails)) {
-            return false;
-        }
+        var start = System.nanoTime();
+        var rejection = tryPushPattern(patternDetails, inputHolder);
+        stats.onPush(rejection, System.nanoTime() - start);
+        return rejection == null;
+    }
 
-        var be = host.getBlockEntity();
-        var level = be.getLevel();
-        var advPattern = patternDetails instanceof IAdvPatternDetails;
+    /**
+     * @return Null if the pattern was pushed, otherwise why it wasn't.
+     */
+    @Nullable
+    private PatternProviderStats.Rejection tryPushPattern(IPatternDetails patternDetails, KeyCounter[] inputHolder) {
+        var plan = pushPlans.get(patternDetails);
+        if (!sendList.isEmpty()) {
+            return PatternProviderStats.Rejection.BUSY;
+        }
+        if (!this.mainNode.isActive() || plan == null) {
+            return PatternProviderStats.Rejection.OFFLINE;
+        }
 
         if (getCraftingLockedReason() != LockCraftingMode.NONE) {
-            return false;
+            return PatternProviderStats.Rejection.LOCKED;
         }
 
-        record PushTarget(Direction direction, PatternProviderTarget target) {}
-        var possibleTargets = new ArrayList<PushTarget>();
+        var topology = getPushTopology();
+        var sides = topology.sides();
+        // Bit i is set if the i-th side has a target for generic inventories
+        int possibleTargets = 0;
+        // Reported instead of a missing target if a crafting machine was there but refused the pattern
+        var machineRefused = false;
 
         // Push to crafting machines first
-        for (var direction : getActiveSides()) {
-            var adjPos = be.getBlockPos().relative(direction);
-            var adjBeSide = direction.getOpposite();
-
-            var craftingMachine = ICraftingMachine.of(level, adjPos, adjBeSide);
+        for (int i = 0; i < sides.length; i++) {
+            var craftingMachine = topology.craftingMachines()[i].getCapability();
             if (craftingMachine != null && craftingMachine.acceptsPlans()) {
-                if (craftingMachine.pushPattern(patternDetails, inputHolder, adjBeSide)) {
+                if (craftingMachine.pushPattern(patternDetails, inputHolder, sides[i].getOpposite())) {
                     onPushPatternSuccess(patternDetails);
-                    return true;
+                    return null;
                 }
+                machineRefused = true;
                 continue;
             }
 
-            var adapter = findAdapter(direction);
-            if (adapter == null) continue;
-
-            possibleTargets.add(new PushTarget(direction, adapter));
+            if (topology.targets()[i] != null) {
+                possibleTargets |= 1 << i;
+            }
         }
 
         // If no dedicated crafting machine could be found, and the pattern does not support
         // generic external inventories, stop here.
+        var noTarget =
+                machineRefused ? PatternProviderStats.Rejection.BUSY : PatternProviderStats.Rejection.NO_TARGET;
         if (!patternDetails.supportsPushInputsToExternalInventory()) {
-            return false;
+            return noTarget;
+        }
+
+        var targetCount = Integer.bitCount(possibleTargets);
+        if (targetCount == 0) {
+            return noTarget;
         }
 
-        // Rearrange for round-robin
-        rearrangeRoundRobin(possibleTargets);
+        // Only reported as blocked if every target was skipped because of blocking mode
+        var rejection = PatternProviderStats.Rejection.BLOCKED;
 
-        // Push to other kinds of blocks
-        for (var target : possibleTargets) {
-            var direction = target.direction();
-            var adapter = target.target();
+        // Push to other kinds of blocks, starting at the round-robin index
+        roundRobinIndex %= targetCount;
+        for (int n = 0; n < targetCount; n++) {
+            var i = nthSetBit(possibleTargets, (roundRobinIndex + n) % targetCount);
+            var direction = sides[i];
+            var adapter = topology.targets()[i];
 
-            if (this.isBlocking() && adapter.containsPatternInput(this.patternInputs)) {
+            if (this.isBlocking() && containsPatternInput(adapter, patternDetails)) {
                 continue;
             }
+            rejection = PatternProviderStats.Rejection.PARTIAL_INSERT;
 
-            if (advPattern && ((IAdvPatternDetails) patternDetails).directionalInputsSet()) {
-                if (this.pushInputsDirectionally(direction, inputHolder, (IAdvPatternDetails) patternDetails)) {
-                    return true;
+            if (plan.directional()) {
+                if (this.pushInputsDirectionally(direction, adapter, patternDetails, inputHolder, plan)) {
+                    return null;
                 }
             }
 
-            if (this.adapterAcceptsAll(adapter, inputHolder)) {
-                patternDetails.pushInputsToExternalInventory(inputHolder, (what, amount) -> {
-                    var inserted = adapter.insert(what, amount, Actionable.MODULATE);
-                    if (inserted < amount) {
-                        this.addToSendList(what, amount - inserted);
-                    }
-                });
+            // Record what the target accepted while simulating, if its inserts can be trusted to match
+            this.pushFromSimulation = isDeterministic(adapter);
+            this.pushAccepted.clear();
+            if (this.adapterAcceptsAll(adapter, inputHolder, this.pushFromSimulation ? this.pushAccepted : null)) {
+                this.pushTarget = adapter;
+                patternDetails.pushInputsToExternalInventory(inputHolder, this.pushSink);
+                this.pushTarget = null;
+
                 onPushPatternSuccess(patternDetails);
                 this.sendDirection = direction;
                 this.directionMap = null;
                 this.sendStacksOut();
                 ++roundRobinIndex;
-                return true;
+                return null;
+            }
+        }
+
+        return rejection;
+    }
+
+    /**
+     * @return True if {@link #pushPatternCopies} may push several copies of the pattern at once. Blocking mode, the
+     * lock crafting modes and crafting machines all work with single pushes.
+     */
+    public boolean canPushPatternCopies(IPatternDetails patternDetails) {
+        if (!sendList.isEmpty() || !this.mainNode.isActive() || !pushPlans.containsKey(patternDetails)) {
+            return false;
+        }
+        if (!patternDetails.supportsPushInputsToExternalInventory()
+                || isBlocking()
+                || configManager.getSetting(Settings.LOCK_CRAFTING_MODE) != LockCraftingMode.NONE) {
+            return false;
+        }
+
+        for (var craftingMachineCache : getPushTopology().craftingMachines()) {
+            var craftingMachine = craftingMachineCache.getCapability();
+            if (craftingMachine != null && craftingMachine.acceptsPlans()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pushes several copies of a pattern at once, into the first target that accepts the inputs of all of them while
+     * simulating. Callers are expected to fall back to {@link #pushPattern} if this fails.
+     *
+     * @param inputHolder The inputs of all the copies together.
+     * @return True if all the copies were pushed, false if nothing was pushed.
+     */
+    public boolean pushPatternCopies(IPatternDetails patternDetails, KeyCounter[] inputHolder, int copies) {
+        if (!canPushPatternCopies(patternDetails)) {
+            return false;
+        }
+
+        var start = System.nanoTime();
+        var plan = pushPlans.get(patternDetails);
+        var allInputs = new KeyCounter();
+        for (var inputList : inputHolder) {
+            allInputs.addAll(inputList);
+        }
+
+        var topology = getPushTopology();
+        var sides = topology.sides();
+        int possibleTargets = 0;
+        for (int i = 0; i < sides.length; i++) {
+            if (topology.targets()[i] != null) {
+                possibleTargets |= 1 << i;
+            }
+        }
+
+        var targetCount = Integer.bitCount(possibleTargets);
+        if (targetCount == 0) {
+            return false;
+        }
+
+        roundRobinIndex %= targetCount;
+        for (int n = 0; n < targetCount; n++) {
+            var i = nthSetBit(possibleTargets, (roundRobinIndex + n) % targetCount);
+            var direction = sides[i];
+            var adapter = topology.targets()[i];
+
+            // The target for each key, or null if one of them doesn't take everything
+            var keyTargets = findCopiesTargets(direction, adapter, plan, allInputs);
+            if (keyTargets == null) {
+                continue;
             }
+
+            pushInputCopies(patternDetails, allInputs, copies, (what, amount) -> {
+                var target = keyTargets.get(what);
+                var inserted = target.insert(what, amount, Actionable.MODULATE);
+                if (inserted != amount) {
+                    onInsertDisagreement(target);
+                }
+                if (inserted < amount) {
+                    this.addToSendList(what, amount - inserted);
+                }
+            });
+            onPushPatternSuccess(patternDetails);
+            this.sendDirection = direction;
+            this.directionMap = plan.directional() ? plan.directionMap() : null;
+            this.sendStacksOut();
+            ++roundRobinIndex;
+            stats.onPushCopies(copies, System.nanoTime() - start);
+            return true;
         }
 
         return false;
     }
 
+    /**
+     * Finds where each input goes when pushing into the given side. Only targets whose simulations can be trusted are
+     * used, since whatever they don't take would have to be buffered.
+     *
+     * @return Null if one of the targets doesn't accept all of its inputs.
+     */
+    @Nullable
+    private Map<AEKey, PatternProviderTarget> findCopiesTargets(
+            Direction direction, PatternProviderTarget adapter, PushPlan plan, KeyCounter allInputs) {
+        var keyTargets = new HashMap<AEKey, PatternProviderTarget>(allInputs.size());
+        for (var input : allInputs) {
+            var target = adapter;
+            if (plan.directional()) {
+                var fromSide = plan.directionMap().get(input.getKey());
+                if (fromSide != null) {
+                    target = findAdapter(direction, fromSide);
+                }
+            }
+            if (target == null
+                    || !isDeterministic(target)
+                    || target.insert(input.getKey(), input.getLongValue(), Actionable.SIMULATE)
+                            != input.getLongValue()) {
+                return null;
+            }
+            keyTargets.put(input.getKey(), target);
+        }
+        return keyTargets;
+    }
+
+    /**
+     * Sends the inputs of several copies of a pattern in the order of its sparse inputs when it has any, so that
+     * machines receive them in the same order as with single pushes.
+     */
+    private static void pushInputCopies(
+            IPatternDetails patternDetails,
+            KeyCounter allInputs,
+            int copies,
+            IPatternDetails.PatternInputSink inputSink) {
+        var remaining = new KeyCounter();
+        remaining.addAll(allInputs);
+
+        List<GenericStack> sparseInputs = List.of();
+        if (patternDetails instanceof AEProcessingPattern aePattern) {
+            sparseInputs = aePattern.getSparseInputs();
+        } else if (patternDetails instanceof AdvProcessingPattern advPattern) {
+            sparseInputs = advPattern.getSparseInputs();
+        }
+
+        for (var sparseInput : sparseInputs) {
+            if (sparseInput == null) {
+                continue;
+            }
+            var amount = Math.min(sparseInput.amount() * copies, remaining.get(sparseInput.what()));
+            if (amount > 0) {
+                inputSink.pushInput(sparseInput.what(), amount);
+                remaining.remove(sparseInput.what(), amount);
+            }
+        }
+
+        for (var input : remaining) {
+            if (input.getLongValue() > 0) {
+                inputSink.pushInput(input.getKey(), input.getLongValue());
+            }
+        }
+    }
+
     private boolean pushInputsDirectionally(
-            Direction direction, KeyCounter[] inputHolder, IAdvPatternDetails patternDetails) {
-        HashMap<AEKey, PatternProviderTarget> adapterMap = new HashMap<>();
-        for (KeyCounter inputList : inputHolder) {
-            Direction fromSide = patternDetails.getDirectionSideForInputKey(inputList.getFirstKey());
-            var adapter = findAdapter(direction, fromSide);
-            adapterMap.put(inputList.getFirstKey(), adapter);
-
-            if (!this.adapterAcceptsItem(adapter, inputList)) {
-                // If one of the inputs fail, we can't input the items directionally
-                return false;
+            Direction direction,
+            PatternProviderTarget adapter,
+            IPatternDetails patternDetails,
+            KeyCounter[] inputHolder,
+            PushPlan plan) {
+        var layout = plan.sideLayout();
+        var sideTargets = new PatternProviderTarget[layout.getGroupCount()];
+        for (int group = 0; group < sideTargets.length; group++) {
+            var fromSide = layout.getSide(group);
+            var target = fromSide == null ? adapter : findAdapter(direction, fromSide);
+            for (int input : layout.getInputs(group)) {
+                if (!this.adapterAcceptsItem(target, inputHolder[input])) {
+                    // If one of the inputs fail, we can't input the items directionally
+                    return false;
+                }
             }
+            sideTargets[group] = target;
         }
-        patternDetails.pushInputsToExternalInventory(inputHolder, (what, amount) -> {
-            var target = adapterMap.get(what);
+        plan.advPattern().pushInputsToExternalInventory(inputHolder, (what, amount) -> {
+            var group = layout.getGroup(what);
             var inserted = 0L;
-            if (target != null) {
-                inserted = adapterMap.get(what).insert(what, amount, Actionable.MODULATE);
+            if (group >= 0) {
+                inserted = sideTargets[group].insert(what, amount, Actionable.MODULATE);
             }
             if (inserted < amount) {
                 this.addToSendList(what, amount - inserted);
             }
         });
-        onPushPatternSuccess((IPatternDetails) patternDetails);
+        onPushPatternSuccess(patternDetails);
         this.sendDirection = direction;
-        this.directionMap = patternDetails.getDirectionMap();
+        this.directionMap = plan.directionMap();
         this.sendStacksOut();
         ++roundRobinIndex;
         return true;
@@ -423,6 +683,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
         if (unlockEvent != null) {
             unlockEvent = null;
             unlockStack = null;
+            stateVersion++;
             saveChanges();
         }
     }
@@ -498,6 +759,79 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
         return sides;
     }
 
+    private PushTopology getPushTopology() {
+        var topology = this.pushTopology;
+        if (topology == null) {
+            var sides = getActiveSides().toArray(new Direction[0]);
+            @SuppressWarnings("unchecked")
+            BlockCapabilityCache<ICraftingMachine, Direction>[] craftingMachines =
+                    new BlockCapabilityCache[sides.length];
+            var targets = new PatternProviderTarget[sides.length];
+            for (int i = 0; i < sides.length; i++) {
+                craftingMachines[i] = getCraftingMachineCache(sides[i]);
+                targets[i] = findAdapter(sides[i]);
+            }
+            topology = new PushTopology(sides, craftingMachines, targets);
+            this.pushTopology = topology;
+        }
+        return topology;
+    }
+
+    private BlockCapabilityCache<ICraftingMachine, Direction> getCraftingMachineCache(Direction side) {
+        var cache = craftingMachineCaches[side.get3DDataValue()];
+        if (cache == null) {
+            var thisBe = host.getBlockEntity();
+            cache = BlockCapabilityCache.create(
+                    AECapabilities.CRAFTING_MACHINE,
+                    (ServerLevel) thisBe.getLevel(),
+                    thisBe.getBlockPos().relative(side),
+                    side.getOpposite(),
+                    () -> !thisBe.isRemoved(),
+                    this::invalidatePushTopology);
+            craftingMachineCaches[side.get3DDataValue()] = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Forgets the resolved neighbors, e.g. because a neighbor, a capability or a grid connection changed.
+     */
+    public void invalidatePushTopology() {
+        this.pushTopology = null;
+        for (var targetCache : targetCaches) {
+            if (targetCache != null) {
+                targetCache.invalidate();
+            }
+        }
+        wakeUpIfStuck();
+    }
+
+    /**
+     * Retries right away if the ticker was backing off, since the change may have made room in the target.
+     */
+    private void wakeUpIfStuck() {
+        if (noProgressCalls > 0 && hasWorkToDo()) {
+            noProgressCalls = 0;
+            idleTicks = 0;
+            this.mainNode.ifPresent((grid, node) -> grid.getTickManager().alertDevice(node));
+        }
+    }
+
+    /**
+     * Called by the host when one of its neighbors changed.
+     */
+    public void onNeighborChanged() {
+        invalidatePushTopology();
+        updateRedstoneState();
+    }
+
+    /**
+     * Called by the host when the contents of a neighbor changed, which may have made room for the send list.
+     */
+    public void onNeighborContentChanged() {
+        wakeUpIfStuck();
+    }
+
     public boolean isBlocking() {
         return this.configManager.getSetting(Settings.BLOCKING_MODE) == YesNo.YES;
     }
@@ -515,23 +849,111 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
                     (ServerLevel) thisBe.getLevel(),
                     thisBe.getBlockPos().relative(side),
                     side.getOpposite(),
-                    actionSource);
+                    actionSource,
+                    () -> !thisBe.isRemoved(),
+                    this::invalidatePushTopology);
         }
         return targetCaches[side.get3DDataValue()].find(fromSide);
     }
 
-    private boolean adapterAcceptsAll(PatternProviderTarget target, KeyCounter[] inputHolder) {
+    private boolean containsPatternInput(PatternProviderTarget target, IPatternDetails patternDetails) {
+        if (target instanceof AdvPatternProviderTargetCache.Target cachedTarget) {
+            return cachedTarget.containsPatternInput(this.patternInputs, patternDetails);
+        }
+        return target.containsPatternInput(this.patternInputs);
+    }
+
+    /**
+     * @param accepted If not null, receives the simulated amount the target accepted for each input.
+     */
+    private boolean adapterAcceptsAll(
+            PatternProviderTarget target, KeyCounter[] inputHolder, @Nullable KeyCounter accepted) {
         for (var inputList : inputHolder) {
             for (var input : inputList) {
                 var inserted = target.insert(input.getKey(), input.getLongValue(), Actionable.SIMULATE);
                 if (inserted == 0) {
                     return false;
                 }
+                if (accepted != null) {
+                    accepted.add(input.getKey(), inserted);
+                }
             }
         }
         return true;
     }
 
+    /**
+     * Inserts an input of the current push into {@link #pushTarget}, offering no more than the simulation accepted if
+     * {@link #pushFromSimulation} is set.
+     */
+    private void pushInput(AEKey what, long amount) {
+        var target = Objects.requireNonNull(this.pushTarget);
+        var toInsert = amount;
+        if (this.pushFromSimulation) {
+            // Don't offer more than the simulation accepted, the rest goes to the send list right away
+            toInsert = Math.min(amount, this.pushAccepted.get(what));
+            this.pushAccepted.remove(what, toInsert);
+        }
+        var inserted = toInsert > 0 ? target.insert(what, toInsert, Actionable.MODULATE) : 0;
+        if (this.pushFromSimulation && inserted != toInsert) {
+            onInsertDisagreement(target);
+        }
+        if (inserted < amount) {
+            this.addToSendList(what, amount - inserted);
+        }
+    }
+
+    private static boolean isDeterministic(PatternProviderTarget target) {
+        return target instanceof AdvPatternProviderTargetCache.Target cachedTarget && cachedTarget.isDeterministic();
+    }
+
+    /**
+     * Called when a target didn't insert what it accepted while simulating. Its simulations aren't used to drive the
+     * real insertion anymore, until its capability changes.
+     */
+    private void onInsertDisagreement(PatternProviderTarget target) {
+        insertDisagreements++;
+        if (target instanceof AdvPatternProviderTargetCache.Target cachedTarget) {
+            cachedTarget.markNonDeterministic();
+        }
+    }
+
+    /**
+     * @return How often a target inserted a different amount than it accepted while simulating.
+     */
+    public long getInsertDisagreements() {
+        return insertDisagreements;
+    }
+
+    public PatternProviderStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return How many different keys are waiting to be sent out.
+     */
+    public int getSendListSize() {
+        return sendList.size();
+    }
+
+    /**
+     * @return The total amount waiting to be sent out.
+     */
+    public long getSendListAmount() {
+        long amount = 0;
+        for (var entry : Object2LongMaps.fastIterable(sendList)) {
+            amount += entry.getLongValue();
+        }
+        return amount;
+    }
+
+    /**
+     * @return The block entity hosting this provider.
+     */
+    public BlockEntity getHostEntity() {
+        return host.getBlockEntity();
+    }
+
     private boolean adapterAcceptsItem(PatternProviderTarget target, KeyCounter inputList) {
         for (var input : inputList) {
             if (target == null) {
@@ -547,7 +969,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
 
     private void addToSendList(AEKey what, long amount) {
         if (amount > 0) {
-            this.sendList.add(new GenericStack(what, amount));
+            this.sendList.addTo(what, amount);
 
             this.mainNode.ifPresent((grid, node) -> grid.getTickManager().alertDevice(node));
         }
@@ -566,34 +988,46 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
             return false;
         }
 
+        // Targets of the keys that go to a specific side, resolved at most once per flush
+        PatternProviderTarget[] sideTargets = directionMap != null ? new PatternProviderTarget[6] : null;
         boolean didSomething = false;
+        long sentAmount = 0;
 
-        for (var it = sendList.listIterator(); it.hasNext(); ) {
-            var stack = it.next();
-            var what = stack.what();
-            long amount = stack.amount();
+        for (var it = Object2LongMaps.fastIterator(sendList); it.hasNext(); ) {
+            var entry = it.next();
+            var what = entry.getKey();
+            long amount = entry.getLongValue();
 
-            if (directionMap != null) {
+            var target = adapter;
+            if (sideTargets != null) {
                 Direction dir = directionMap.get(what);
-                var newAdapter = findAdapter(sendDirection, dir);
-                if (newAdapter != null) {
-                    adapter = newAdapter;
+                if (dir != null) {
+                    var index = dir.get3DDataValue();
+                    if (sideTargets[index] == null) {
+                        var sideTarget = findAdapter(sendDirection, dir);
+                        sideTargets[index] = sideTarget != null ? sideTarget : adapter;
+                    }
+                    target = sideTargets[index];
                 }
             }
 
-            var inserted = adapter.insert(what, amount, Actionable.MODULATE);
+            var inserted = target.insert(what, amount, Actionable.MODULATE);
+            sentAmount += inserted;
             if (inserted >= amount) {
                 it.remove();
                 didSomething = true;
             } else if (inserted > 0) {
-                it.set(new GenericStack(what, amount - inserted));
+                entry.setValue(amount - inserted);
                 didSomething = true;
             }
         }
 
+        lastSentAmount = sentAmount;
+
         if (sendList.isEmpty()) {
             sendDirection = null;
             directionMap = null;
+            stateVersion++;
         }
 
         return didSomething;
@@ -622,6 +1056,16 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
     }
 
     public void onMainNodeStateChanged() {
+        // Only server-side providers have a node, and only those are listed by the stats commands
+        if (this.mainNode.getNode() != null) {
+            PatternProviderStats.register(this);
+        } else {
+            PatternProviderStats.unregister(this);
+        }
+
+        this.stateVersion++;
+        // Grid connections to neighbors may have changed
+        invalidatePushTopology();
         if (this.mainNode.isActive()) {
             this.mainNode.ifPresent((grid, node) -> {
                 grid.getTickManager().alertDevice(node);
@@ -629,15 +1073,22 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
         }
     }
 
+    /**
+     * Called by the host when it is removed or unloaded.
+     */
+    public void onRemoved() {
+        PatternProviderStats.unregister(this);
+    }
+
     public void addDrops(List<ItemStack> drops) {
         for (var stack : this.patternInventory) {
             drops.add(stack);
         }
 
-        for (var stack : this.sendList) {
-            stack.what()
+        for (var stack : Object2LongMaps.fastIterable(this.sendList)) {
+            stack.getKey()
                     .addDrops(
-                            stack.amount(),
+                            stack.getLongValue(),
                             drops,
                             this.host.getBlockEntity().getLevel(),
                             this.host.getBlockEntity().getBlockPos());
@@ -766,28 +1217,108 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
             if (remainingAmount <= 0) {
                 unlockEvent = null;
                 unlockStack = null;
+                stateVersion++;
             } else {
                 unlockStack = new GenericStack(unlockStack.what(), remainingAmount);
             }
         }
     }
 
+    /**
+     * The active sides of this provider, with the crafting machine and generic inventory target of each side.
+     */
+    private record PushTopology(
+            Direction[] sides,
+            BlockCapabilityCache<ICraftingMachine, Direction>[] craftingMachines,
+            PatternProviderTarget[] targets) {}
+
+    /**
+     * What {@link #pushPattern} needs to know about a pattern, computed once when the patterns are updated.
+     *
+     * @param advPattern   The pattern if it is an advanced pattern, null otherwise.
+     * @param directional  True if the inputs have to be pushed into specific sides.
+     * @param directionMap The side for each input, empty if the pattern isn't directional.
+     * @param sideLayout   The inputs grouped by the side they go into, null if the pattern isn't directional.
+     */
+    private record PushPlan(
+            @Nullable IAdvPatternDetails advPattern,
+            boolean directional,
+            Map<AEKey, Direction> directionMap,
+            @Nullable InputSideLayout sideLayout) {
+        private static final PushPlan NON_DIRECTIONAL = new PushPlan(null, false, Map.of(), null);
+
+        static PushPlan of(IPatternDetails details) {
+            if (details instanceof IAdvPatternDetails advPattern && advPattern.directionalInputsSet()) {
+                return new PushPlan(
+                        advPattern, true, advPattern.getDirectionMap(), advPattern.getInputSideLayout());
+            }
+            return NON_DIRECTIONAL;
+        }
+    }
+
+    /**
+     * @return Ticks between the last two times this provider tried to send or return stacks, the idle rate while idle,
+     * or 0 while it has nothing to do.
+     */
+    public int getTickInterval() {
+        return isIdle() ? AAEConfig.instance().getPatternProviderIdleTickRate() : tickInterval;
+    }
+
+    /**
+     * @return True if this provider couldn't move anything for a while, and only retries at the idle rate.
+     */
+    public boolean isIdle() {
+        var idleAfter = AAEConfig.instance().getPatternProviderIdleAfter();
+        return idleAfter > 0 && noProgressCalls >= idleAfter;
+    }
+
+    /**
+     * @return Total amount inserted by the last attempt to empty the send list.
+     */
+    public long getLastSentAmount() {
+        return lastSentAmount;
+    }
+
     private class Ticker implements IGridTickable {
 
         @Override
         public TickingRequest getTickingRequest(IGridNode node) {
-            return new TickingRequest(TickRates.Interface, !hasWorkToDo());
+            return new TickingRequest(TickRates.Interface.getMin(), TickRates.Interface.getMax(), !hasWorkToDo());
         }
 
         @Override
         public TickRateModulation tickingRequest(IGridNode node, int ticksSinceLastCall) {
             if (!mainNode.isActive()) {
+                tickInterval = 0;
                 return TickRateModulation.SLEEP;
             }
+            if (isIdle()) {
+                // Only retry at the idle rate, read here so that config changes apply right away
+                idleTicks += ticksSinceLastCall;
+                if (idleTicks < AAEConfig.instance().getPatternProviderIdleTickRate()) {
+                    return TickRateModulation.IDLE;
+                }
+                idleTicks = 0;
+            }
+            tickInterval = ticksSinceLastCall;
             boolean couldDoWork = doWork();
-            return hasWorkToDo()
-                    ? couldDoWork ? TickRateModulation.URGENT : TickRateModulation.SLOWER
-                    : TickRateModulation.SLEEP;
+            if (!hasWorkToDo()) {
+                noProgressCalls = 0;
+                idleTicks = 0;
+                tickInterval = 0;
+                return TickRateModulation.SLEEP;
+            }
+            if (couldDoWork) {
+                noProgressCalls = 0;
+                idleTicks = 0;
+                // A target that only took part of the send list makes room at its own pace, close in on it gradually
+                return lastSentAmount > 0 && !sendList.isEmpty()
+                        ? TickRateModulation.FASTER
+                        : TickRateModulation.URGENT;
+            }
+            // Nothing could be moved, back off until the target makes room or a neighbor changes
+            noProgressCalls++;
+            return isIdle() ? TickRateModulation.IDLE : TickRateModulation.SLOWER;
         }
     }
 
@@ -838,6 +1369,14 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
         return new PatternContainerGroup(hostIcon, hostIcon.getDisplayName(), tooltip);
     }
 
+    /**
+     * @return A counter that changes whenever this provider may have become able to accept patterns again, e.g. after
+     *         emptying its send list, being unlocked or having its neighbors change.
+     */
+    public int getStateVersion() {
+        return stateVersion;
+    }
+
     public long getSortValue() {
         final BlockEntity te = this.host.getBlockEntity();
         return te.getBlockPos().getZ() << 24
@@ -851,6 +1390,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
     }
 
     public void updateRedstoneState() {
+        stateVersion++;
         // If we're waiting for a pulse, update immediately
         if (unlockEvent == UnlockCraftingEvent.PULSE && getRedstoneState()) {
             unlockEvent = null; // Unlocked!
@@ -862,6 +1402,7 @@ public class AdvPatternProviderLogic implements InternalInventoryHost, ICrafting
     }
 
     private void configChanged(IConfigManager manager, Setting<?> setting) {
+        stateVersion++;
         if (setting == Settings.LOCK_CRAFTING_MODE) {
             resetCraftingLock();
         } else {
@@ -1,9 +1,10 @@
 package net.pedroksl.advanced_ae.common.logic;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -11,46 +12,113 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import net.neoforged.neoforge.capabilities.Capabilities;
 
 import appeng.api.AECapabilities;
 import appeng.api.behaviors.ExternalStorageStrategy;
 import appeng.api.config.Actionable;
+import appeng.api.crafting.IPatternDetails;
 import appeng.api.networking.security.IActionSource;
 import appeng.api.stacks.AEKey;
 import appeng.api.stacks.AEKeyType;
 import appeng.api.storage.MEStorage;
 import appeng.helpers.patternprovider.PatternProviderTarget;
+import appeng.hooks.ticking.TickHandler;
 import appeng.me.storage.CompositeStorage;
 import appeng.parts.automation.StackWorldBehaviors;
 
 @SuppressWarnings("UnstableApiUsage")
 class AdvPatternProviderTargetCache {
+    private final ServerLevel level;
+    private final BlockPos pos;
     private final BlockCapabilityCache<MEStorage, Direction> cache;
     private final Direction direction;
     private final IActionSource src;
-    private final HashMap<Direction, Map<AEKeyType, ExternalStorageStrategy>> strategiesMap = new HashMap<>();
+    private final BooleanSupplier isValid;
+    private final Runnable invalidationListener;
 
-    AdvPatternProviderTargetCache(ServerLevel l, BlockPos pos, Direction direction, IActionSource src) {
-        this.cache = BlockCapabilityCache.create(AECapabilities.ME_STORAGE, l, pos, direction);
+    /**
+     * External storage strategies of each side, created the first time a target is needed for that side.
+     */
+    @SuppressWarnings("unchecked")
+    private final Map<AEKeyType, ExternalStorageStrategy>[] strategies = new Map[6];
+    /**
+     * Only used to find out when the item or fluid handlers of a side change.
+     */
+    private final BlockCapabilityCache<?, ?>[] itemHandlerListeners = new BlockCapabilityCache[6];
+
+    private final BlockCapabilityCache<?, ?>[] fluidHandlerListeners = new BlockCapabilityCache[6];
+    /**
+     * Composed target of each side, valid while {@link #resolved} is set for that side.
+     */
+    private final Target[] targets = new Target[6];
+
+    private final boolean[] resolved = new boolean[6];
+
+    /**
+     * Tick in which the target was last found to contain pattern inputs. That verdict is reused for the rest of the
+     * tick, since inserting more can't unblock it. A target that isn't blocked is checked again every time, because
+     * anything else may insert into it in the meantime.
+     */
+    private long blockedTick = -1;
+    /**
+     * Whether the last blocking mode check found pattern inputs.
+     */
+    private boolean wasBlocked;
+
+    /**
+     * False once the target inserted a different amount than it accepted while simulating.
+     */
+    private boolean deterministic = true;
+
+    AdvPatternProviderTargetCache(
+            ServerLevel l,
+            BlockPos pos,
+            Direction direction,
+            IActionSource src,
+            BooleanSupplier isValid,
+            Runnable invalidationListener) {
+        this.level = l;
+        this.pos = pos;
         this.direction = direction;
         this.src = src;
-        for (Direction dir : Direction.values()) {
-            this.strategiesMap.put(dir, StackWorldBehaviors.createExternalStorageStrategies(l, pos, dir));
-        }
+        this.isValid = isValid;
+        this.invalidationListener = invalidationListener;
+        this.cache = BlockCapabilityCache.create(
+                AECapabilities.ME_STORAGE, l, pos, direction, isValid, this::onCapabilityInvalidated);
     }
 
     @Nullable
     PatternProviderTarget find(Direction fromSide) {
-        // our capability first: allows any storage channel
         Direction side = fromSide == null ? direction : fromSide;
+        var index = side.get3DDataValue();
+        if (!resolved[index]) {
+            targets[index] = createTarget(side);
+            resolved[index] = true;
+        }
+        return targets[index];
+    }
+
+    @Nullable
+    private Target createTarget(Direction side) {
+        // our capability first: allows any storage channel
         var meStorage = cache.getCapability();
         if (meStorage != null) {
-            return wrapMeStorage(meStorage);
+            return new Target(meStorage, null);
         }
 
         // otherwise fall back to the platform capability
+        var index = side.get3DDataValue();
+        if (strategies[index] == null) {
+            strategies[index] = StackWorldBehaviors.createExternalStorageStrategies(level, pos, side);
+            itemHandlerListeners[index] = BlockCapabilityCache.create(
+                    Capabilities.ItemHandler.BLOCK, level, pos, side, isValid, this::onCapabilityInvalidated);
+            fluidHandlerListeners[index] = BlockCapabilityCache.create(
+                    Capabilities.FluidHandler.BLOCK, level, pos, side, isValid, this::onCapabilityInvalidated);
+        }
+
         var externalStorages = new IdentityHashMap<AEKeyType, MEStorage>(2);
-        for (var entry : strategiesMap.get(side).entrySet()) {
+        for (var entry : strategies[index].entrySet()) {
             var wrapper = entry.getValue().createWrapper(false, () -> {});
             if (wrapper != null) {
                 externalStorages.put(entry.getKey(), wrapper);
@@ -58,28 +126,126 @@ class AdvPatternProviderTargetCache {
         }
 
         if (!externalStorages.isEmpty()) {
-            return wrapMeStorage(new CompositeStorage(externalStorages));
+            return new Target(new CompositeStorage(externalStorages), externalStorages);
         }
 
         return null;
     }
 
-    private PatternProviderTarget wrapMeStorage(MEStorage storage) {
-        return new PatternProviderTarget() {
-            @Override
-            public long insert(AEKey what, long amount, Actionable type) {
-                return storage.insert(what, amount, type, src);
+    /**
+     * Drops the composed targets, e.g. because a neighbor changed.
+     */
+    void invalidate() {
+        Arrays.fill(targets, null);
+        Arrays.fill(resolved, false);
+        invalidateBlockingCheck();
+    }
+
+    private void onCapabilityInvalidated() {
+        invalidate();
+        deterministic = true;
+        invalidationListener.run();
+    }
+
+    private void invalidateBlockingCheck() {
+        this.blockedTick = -1;
+        this.wasBlocked = false;
+    }
+
+    class Target implements PatternProviderTarget {
+        private final MEStorage storage;
+        /**
+         * The storage of each key type, if the target is made of separate external storages.
+         */
+        @Nullable
+        private final Map<AEKeyType, MEStorage> storagesByType;
+
+        private Target(MEStorage storage, @Nullable Map<AEKeyType, MEStorage> storagesByType) {
+            this.storage = storage;
+            this.storagesByType = storagesByType;
+        }
+
+        @Override
+        public long insert(AEKey what, long amount, Actionable type) {
+            return storage.insert(what, amount, type, src);
+        }
+
+        boolean isDeterministic() {
+            return deterministic;
+        }
+
+        void markNonDeterministic() {
+            deterministic = false;
+        }
+
+        @Override
+        public boolean containsPatternInput(Set<AEKey> patternInputs) {
+            return containsPatternInput(patternInputs, null);
+        }
+
+        /**
+         * Same as {@link #containsPatternInput(Set)}. If the target was blocked the last time, the inputs of the
+         * pattern about to be pushed are looked for first, since they are the most likely leftovers of that push.
+         */
+        boolean containsPatternInput(Set<AEKey> patternInputs, @Nullable IPatternDetails pattern) {
+            var currentTick = TickHandler.instance().getCurrentTick();
+            if (blockedTick == currentTick) {
+                return true;
             }
 
-            @Override
-            public boolean containsPatternInput(Set<AEKey> patternInputs) {
-                for (var stack : storage.getAvailableStacks()) {
-                    if (patternInputs.contains(stack.getKey().dropSecondary())) {
-                        return true;
+            wasBlocked = findPatternInput(patternInputs, wasBlocked ? pattern : null);
+            if (wasBlocked) {
+                blockedTick = currentTick;
+            }
+            return wasBlocked;
+        }
+
+        private boolean findPatternInput(Set<AEKey> patternInputs, @Nullable IPatternDetails pattern) {
+            if (patternInputs.isEmpty()) {
+                return false;
+            }
+
+            // A hit is conclusive and skips the scan. A miss isn't, since the target may hold the same inputs with
+            // other components, so this is only worth it while the target is likely to still be blocked.
+            if (pattern != null) {
+                for (var input : pattern.getInputs()) {
+                    for (var candidate : input.getPossibleInputs()) {
+                        if (storage.extract(candidate.what(), 1, Actionable.SIMULATE, src) > 0) {
+                            return true;
+                        }
                     }
                 }
-                return false;
             }
-        };
+
+            if (storagesByType == null) {
+                return containsAny(storage, patternInputs);
+            }
+
+            // Only look at the storages that can hold a pattern input at all
+            for (var entry : storagesByType.entrySet()) {
+                if (hasInputOfType(patternInputs, entry.getKey()) && containsAny(entry.getValue(), patternInputs)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasInputOfType(Set<AEKey> patternInputs, AEKeyType type) {
+            for (var input : patternInputs) {
+                if (input.getType() == type) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean containsAny(MEStorage storage, Set<AEKey> patternInputs) {
+            for (var stack : storage.getAvailableStacks()) {
+                if (patternInputs.contains(stack.getKey().dropSecondary())) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
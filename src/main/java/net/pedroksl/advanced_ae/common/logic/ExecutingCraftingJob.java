@@ -5,10 +5,16 @@ import java.util.Map;
 
 import org.jetbrains.annotations.Nullable;
 
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.network.VarLong;
+import net.minecraft.world.level.Level;
+
+import io.netty.buffer.Unpooled;
 
 import appeng.api.config.Actionable;
 import appeng.api.crafting.IPatternDetails;
@@ -30,11 +36,18 @@ public class ExecutingCraftingJob {
     private static final String NBT_TIME_TRACKER = "timeTracker";
     private static final String NBT_REMAINING_AMOUNT = "remainingAmount";
     private static final String NBT_TASKS = "tasks";
+    private static final String NBT_TASK_PATTERNS = "taskPatterns";
+    private static final String NBT_TASK_COUNTS = "taskCounts";
     private static final String NBT_CRAFTING_PROGRESS = "#craftingProgress";
 
     final CraftingLink link;
     final ListCraftingInventory waitingFor;
     final Map<IPatternDetails, TaskProgress> tasks = new HashMap<>();
+    final ReadyTaskQueue readyTasks = new ReadyTaskQueue();
+    /**
+     * Outputs of all the patterns that are yet to be pushed, kept in sync with the {@link TaskProgress} values.
+     */
+    final Object2LongOpenHashMap<AEKey> pendingOutputs = new Object2LongOpenHashMap<>();
     final ElapsedTimeTracker timeTracker;
     final GenericStack finalOutput;
     long remainingAmount;
@@ -68,6 +81,10 @@ public class ExecutingCraftingJob {
                 totalPending += output.amount() * entry.getValue();
             }
         }
+        for (var entry : tasks.entrySet()) {
+            readyTasks.add(entry.getKey());
+            addPendingOutputs(entry.getKey(), entry.getValue().value);
+        }
         this.timeTracker = new ElapsedTimeTracker(totalPending);
         this.link = link;
         this.playerId = playerId;
@@ -95,15 +112,69 @@ public class ExecutingCraftingJob {
             this.playerId = null;
         }
 
-        ListTag tasksTag = data.getList(NBT_TASKS, Tag.TAG_COMPOUND);
-        for (int i = 0; i < tasksTag.size(); ++i) {
-            final CompoundTag item = tasksTag.getCompound(i);
-            var pattern = AEItemKey.fromTag(registries, item);
-            var details = PatternDetailsHelper.decodePattern(pattern, cpu.cpu.getLevel());
-            if (details != null) {
-                final TaskProgress tp = new TaskProgress();
-                tp.value = item.getLong(NBT_CRAFTING_PROGRESS);
-                this.tasks.put(details, tp);
+        var level = cpu.cpu.getLevel();
+        if (data.contains(NBT_TASK_PATTERNS, Tag.TAG_LIST)) {
+            // Jobs saved by builds that packed the task progress separately
+            ListTag patternsTag = data.getList(NBT_TASK_PATTERNS, Tag.TAG_COMPOUND);
+            var counts = Unpooled.wrappedBuffer(data.getByteArray(NBT_TASK_COUNTS));
+            for (int i = 0; i < patternsTag.size() && counts.isReadable(); ++i) {
+                var pattern = AEItemKey.fromTag(registries, patternsTag.getCompound(i));
+                readTask(pattern, VarLong.read(counts), level);
+            }
+        } else {
+            ListTag tasksTag = data.getList(NBT_TASKS, Tag.TAG_COMPOUND);
+            for (int i = 0; i < tasksTag.size(); ++i) {
+                final CompoundTag item = tasksTag.getCompound(i);
+                var pattern = AEItemKey.fromTag(registries, item);
+                readTask(pattern, item.getLong(NBT_CRAFTING_PROGRESS), level);
+            }
+        }
+    }
+
+    private void readTask(@Nullable AEItemKey pattern, long progress, Level level) {
+        var details = PatternDetailsHelper.decodePattern(pattern, level);
+        if (details != null) {
+            final TaskProgress tp = new TaskProgress();
+            tp.value = progress;
+            this.tasks.put(details, tp);
+            this.readyTasks.add(details);
+            addPendingOutputs(details, tp.value);
+        }
+    }
+
+    /**
+     * Called after pushing copies of a pattern. Removes the task once all of its copies have been pushed.
+     *
+     * @return True if the task is done.
+     */
+    boolean decrementTask(IPatternDetails details, TaskProgress task, long amount) {
+        task.value -= amount;
+        addPendingOutputs(details, -amount);
+        if (task.value <= 0) {
+            removeTask(details);
+            return true;
+        }
+        return false;
+    }
+
+    void removeTask(IPatternDetails details) {
+        var task = tasks.remove(details);
+        if (task != null && task.value > 0) {
+            addPendingOutputs(details, -task.value);
+        }
+        readyTasks.remove(details);
+    }
+
+    long getPendingOutputs(AEKey what) {
+        return pendingOutputs.getLong(what);
+    }
+
+    private void addPendingOutputs(IPatternDetails details, long times) {
+        for (var output : details.getOutputs()) {
+            var key = output.what();
+            var delta = output.amount() * times;
+            if (pendingOutputs.addTo(key, delta) + delta <= 0) {
+                pendingOutputs.removeLong(key);
             }
         }
     }
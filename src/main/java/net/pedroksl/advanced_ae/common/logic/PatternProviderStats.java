@@ -0,0 +1,128 @@
+package net.pedroksl.advanced_ae.common.logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Counts what an advanced pattern provider did with the patterns it was asked to push. The counters are always on, so
+ * they are only summed up when somebody looks at them.
+ */
+public class PatternProviderStats {
+    /**
+     * The server-side providers that are connected to a grid node and still loaded.
+     */
+    private static final Set<AdvPatternProviderLogic> PROVIDERS = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    public enum Rejection {
+        /**
+         * Still sending the inputs of a previous pattern, or a crafting machine refused the pattern and there was no
+         * other target.
+         */
+        BUSY,
+        /**
+         * Not connected to an active grid, or doesn't know the pattern.
+         */
+        OFFLINE,
+        /**
+         * Waiting for a redstone signal or a result because of the lock crafting mode.
+         */
+        LOCKED,
+        /**
+         * All targets still contain pattern inputs while blocking mode is on.
+         */
+        BLOCKED,
+        /**
+         * No neighbor can receive the pattern.
+         */
+        NO_TARGET,
+        /**
+         * A target was found, but it didn't accept all the inputs.
+         */
+        PARTIAL_INSERT
+    }
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder[] rejections = new LongAdder[Rejection.values().length];
+    private final LongAdder pushNanos = new LongAdder();
+
+    PatternProviderStats() {
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    static void register(AdvPatternProviderLogic provider) {
+        PROVIDERS.add(provider);
+    }
+
+    static void unregister(AdvPatternProviderLogic provider) {
+        PROVIDERS.remove(provider);
+    }
+
+    /**
+     * @return A snapshot of all the server-side providers that are still loaded.
+     */
+    public static List<AdvPatternProviderLogic> getProviders() {
+        synchronized (PROVIDERS) {
+            return new ArrayList<>(PROVIDERS);
+        }
+    }
+
+    /**
+     * @param rejection Why the pattern wasn't pushed, or null if it was.
+     */
+    void onPush(@Nullable Rejection rejection, long nanos) {
+        attempts.increment();
+        if (rejection == null) {
+            successes.increment();
+        } else {
+            rejections[rejection.ordinal()].increment();
+        }
+        pushNanos.add(nanos);
+    }
+
+    /**
+     * Counts a push of several copies at once as that many successful pushes.
+     */
+    void onPushCopies(int copies, long nanos) {
+        attempts.add(copies);
+        successes.add(copies);
+        pushNanos.add(nanos);
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    public long getRejections(Rejection rejection) {
+        return rejections[rejection.ordinal()].sum();
+    }
+
+    /**
+     * @return Total time spent trying to push patterns, in nanoseconds.
+     */
+    public long getPushNanos() {
+        return pushNanos.sum();
+    }
+
+    public void reset() {
+        attempts.reset();
+        successes.reset();
+        for (var rejection : rejections) {
+            rejection.reset();
+        }
+        pushNanos.reset();
+    }
+}
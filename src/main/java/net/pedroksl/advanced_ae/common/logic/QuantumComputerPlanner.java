@@ -0,0 +1,83 @@
+package net.pedroksl.advanced_ae.common.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+/**
+ * Runs {@link AdvCraftingCPULogic#planCrafting} for many Quantum Computer CPUs at once on a pool of worker threads.
+ * <p/>
+ * Planning only touches the private inventory of each CPU, everything that affects the world or the grid is left to
+ * the regular tick on the server thread.
+ */
+public final class QuantumComputerPlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantumComputerPlanner.class);
+
+    private static ExecutorService executor;
+
+    private QuantumComputerPlanner() {}
+
+    /**
+     * Plans the given CPUs and waits until all of them are done. Must be called from the server thread.
+     */
+    public static void planAll(List<AdvCraftingCPULogic> cpus) {
+        // Not worth handing a single CPU to another thread
+        if (cpus.size() < 2) {
+            return;
+        }
+
+        var executor = getExecutor();
+        var futures = new ArrayList<Future<?>>(cpus.size());
+        for (var logic : cpus) {
+            var level = logic.cpu.getLevel();
+            futures.add(executor.submit(() -> logic.planCrafting(level)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Uninterruptibles.getUninterruptibly(futures.get(i));
+            } catch (ExecutionException e) {
+                LOGGER.error("Failed to plan crafting for Quantum Computer CPU {}", cpus.get(i).cpu, e.getCause());
+            }
+        }
+
+        // Listeners expect to be called from the server thread
+        for (var logic : cpus) {
+            logic.flushDeferredChanges();
+        }
+    }
+
+    /**
+     * Releases the worker threads once the server stopped. They are created again by the next server that needs them.
+     */
+    public static synchronized void shutdown(ServerStoppedEvent event) {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            var threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            var counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                var thread = new Thread(runnable, "AdvancedAE Quantum Computer Planner " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
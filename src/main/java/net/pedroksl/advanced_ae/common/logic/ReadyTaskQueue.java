@@ -0,0 +1,104 @@
+package net.pedroksl.advanced_ae.common.logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.stacks.AEKey;
+
+/**
+ * Keeps track of the tasks of a job that might be able to run, so the CPU doesn't have to try extracting the inputs of
+ * every pattern on every tick.
+ * <p/>
+ * Tasks are indexed by the keys of their possible inputs, with the secondary component dropped to match the fuzzy
+ * lookups done during extraction. A task that could not extract its inputs is parked until the CPU inventory changes
+ * for one of those keys. Queued tasks are visited in order and re-queued at the back after running, so that a single
+ * pattern can't starve the others.
+ */
+class ReadyTaskQueue {
+    private final Map<AEKey, List<IPatternDetails>> consumers = new HashMap<>();
+    private final LinkedHashSet<IPatternDetails> queue = new LinkedHashSet<>();
+    private boolean muted = false;
+
+    /**
+     * Indexes a new task and queues it.
+     */
+    void add(IPatternDetails details) {
+        for (var input : details.getInputs()) {
+            for (var candidate : input.getPossibleInputs()) {
+                var list = consumers.computeIfAbsent(candidate.what().dropSecondary(), k -> new ArrayList<>());
+                if (!list.contains(details)) {
+                    list.add(details);
+                }
+            }
+        }
+        queue.add(details);
+    }
+
+    /**
+     * Forgets about a finished task.
+     */
+    void remove(IPatternDetails details) {
+        queue.remove(details);
+        for (var input : details.getInputs()) {
+            for (var candidate : input.getPossibleInputs()) {
+                var key = candidate.what().dropSecondary();
+                var list = consumers.get(key);
+                if (list != null && list.remove(details) && list.isEmpty()) {
+                    consumers.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when the amount of a key in the CPU changed. Queues all the tasks that might consume it.
+     */
+    void onChange(AEKey what) {
+        if (muted) return;
+
+        var list = consumers.get(what.dropSecondary());
+        if (list != null) {
+            queue.addAll(list);
+        }
+    }
+
+    /**
+     * Removes and returns the next task to try, or null if no task can run.
+     */
+    @Nullable
+    IPatternDetails poll() {
+        Iterator<IPatternDetails> it = queue.iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+        var details = it.next();
+        it.remove();
+        return details;
+    }
+
+    /**
+     * Puts a task that still had its inputs available at the back of the queue.
+     */
+    void requeue(IPatternDetails details) {
+        queue.add(details);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * While muted, inventory changes don't queue any task. Used while the CPU moves its own items around, which can
+     * never make another task ready.
+     */
+    void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+}
@@ -0,0 +1,81 @@
+package net.pedroksl.advanced_ae.common.logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import appeng.api.stacks.AEKey;
+
+/**
+ * Grid-wide index of the Quantum Computer CPUs that are waiting for a given key, so that items entering the network
+ * only need to be offered to the CPUs that actually want them.
+ */
+public class WaitingCpuIndex implements AdvCraftingCPULogic.WaitingForListener {
+    private static final AdvCraftingCPULogic[] NO_CPUS = new AdvCraftingCPULogic[0];
+
+    private final Map<AEKey, List<AdvCraftingCPULogic>> waiting = new HashMap<>();
+    /**
+     * Notified when a key gains its first waiting CPU or loses its last one.
+     */
+    private final Consumer<AEKey> keyListener;
+
+    public WaitingCpuIndex(Consumer<AEKey> keyListener) {
+        this.keyListener = keyListener;
+    }
+
+    @Override
+    public void onWaitingForChanged(AdvCraftingCPULogic logic, AEKey what) {
+        if (logic.getWaitingFor(what) > 0) {
+            var list = waiting.get(what);
+            if (list == null) {
+                list = new ArrayList<>(1);
+                waiting.put(what, list);
+                keyListener.accept(what);
+            }
+            if (!list.contains(logic)) {
+                list.add(logic);
+            }
+        } else {
+            var list = waiting.get(what);
+            if (list != null && list.remove(logic) && list.isEmpty()) {
+                waiting.remove(what);
+                keyListener.accept(what);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the CPUs waiting for the key. Inserting into them may change the index, so a copy is
+     * returned.
+     */
+    public AdvCraftingCPULogic[] getWaitingCpus(AEKey what) {
+        var list = waiting.get(what);
+        return list == null ? NO_CPUS : list.toArray(NO_CPUS);
+    }
+
+    public boolean isWaitingFor(AEKey what) {
+        return waiting.containsKey(what);
+    }
+
+    public long getWaitingFor(AEKey what) {
+        var list = waiting.get(what);
+        if (list == null) {
+            return 0;
+        }
+
+        long requested = 0;
+        for (var logic : list) {
+            requested += logic.getWaitingFor(what);
+        }
+        return requested;
+    }
+
+    public void clear() {
+        for (var what : waiting.keySet()) {
+            keyListener.accept(what);
+        }
+        waiting.clear();
+    }
+}
@@ -91,6 +91,12 @@ public class AdvPatternProviderPart extends AEBasePart implements AdvPatternProv
         this.logic.updatePatterns();
     }
 
+    @Override
+    public void removeFromWorld() {
+        super.removeFromWorld();
+        this.logic.onRemoved();
+    }
+
     @Override
     public void addAdditionalDrops(List<ItemStack> drops, boolean wrenched) {
         super.addAdditionalDrops(drops, wrenched);
@@ -120,7 +126,7 @@ public class AdvPatternProviderPart extends AEBasePart implements AdvPatternProv
 
     @Override
     public void onNeighborChanged(BlockGetter level, BlockPos pos, BlockPos neighbor) {
-        this.logic.updateRedstoneState();
+        this.logic.onNeighborChanged();
     }
 
     @Override
@@ -1,7 +1,7 @@
 package net.pedroksl.advanced_ae.common.patterns;
 
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.minecraft.core.Direction;
 import net.minecraft.world.item.ItemStack;
@@ -13,7 +13,7 @@ import appeng.api.stacks.GenericStack;
 public final class AdvPatternDetailsEncoder {
 
     public static ItemStack encodeProcessingPattern(
-            List<GenericStack> sparseInputs, List<GenericStack> sparseOutputs, HashMap<AEKey, Direction> dirMap) {
+            List<GenericStack> sparseInputs, List<GenericStack> sparseOutputs, Map<AEKey, Direction> dirMap) {
         ItemStack stack = new ItemStack(AAEItems.ADV_PROCESSING_PATTERN);
         AdvProcessingPattern.encode(stack, sparseInputs, sparseOutputs, dirMap);
         return stack;
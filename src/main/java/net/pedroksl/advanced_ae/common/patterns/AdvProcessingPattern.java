@@ -4,6 +4,8 @@ import java.util.*;
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
@@ -26,11 +28,19 @@ import appeng.crafting.pattern.AEProcessingPattern;
 
 public class AdvProcessingPattern implements IPatternDetails, IAdvPatternDetails {
 
+    /**
+     * Decoded patterns that are still in use somewhere, so that loading big crafting jobs or pattern providers only
+     * decodes each distinct pattern once.
+     */
+    private static final Cache<AEItemKey, AdvProcessingPattern> DECODED_PATTERNS =
+            CacheBuilder.newBuilder().weakValues().build();
+
     private final AEItemKey definition;
     private final List<GenericStack> sparseInputs, sparseOutputs;
     private final AdvProcessingPattern.Input[] inputs;
     private final List<GenericStack> condensedOutputs;
-    private final HashMap<AEKey, Direction> dirMap = new HashMap<>();
+    private final Map<AEKey, Direction> dirMap;
+    private final InputSideLayout inputSideLayout;
 
     public AdvProcessingPattern(AEItemKey definition) {
         this.definition = definition;
@@ -55,21 +65,37 @@ public class AdvProcessingPattern implements IPatternDetails, IAdvPatternDetails
 
         var inputs = encodedPattern.sparseInputs();
         var directions = encodedPattern.directionList();
+        var dirMap = new HashMap<AEKey, Direction>();
         for (var x = 0; x < inputs.size(); x++) {
             var input = inputs.get(x);
             var direction = directions.get(x);
 
             if (input != null) {
-                this.dirMap.put(input.what(), direction.getDirection());
+                dirMap.put(input.what(), direction.getDirection());
             }
         }
+        // Instances are shared through the decode cache
+        this.dirMap = Collections.unmodifiableMap(dirMap);
+        this.inputSideLayout = InputSideLayout.of(this.inputs, dirMap);
+    }
+
+    /**
+     * Decodes a pattern, reusing the existing instance if the same pattern is already decoded and still in use.
+     */
+    public static AdvProcessingPattern decode(AEItemKey definition) {
+        var pattern = DECODED_PATTERNS.getIfPresent(definition);
+        if (pattern == null) {
+            pattern = new AdvProcessingPattern(definition);
+            DECODED_PATTERNS.put(definition, pattern);
+        }
+        return pattern;
     }
 
     public static void encode(
             ItemStack stack,
             List<GenericStack> sparseInputs,
             List<GenericStack> sparseOutputs,
-            @Nullable HashMap<AEKey, Direction> dirMap) {
+            @Nullable Map<AEKey, Direction> dirMap) {
         if (sparseInputs.stream().noneMatch(Objects::nonNull)) {
             throw new IllegalArgumentException("At least one input must be non-null.");
         } else {
@@ -139,7 +165,10 @@ public class AdvProcessingPattern implements IPatternDetails, IAdvPatternDetails
         return sparseOutputs;
     }
 
-    public HashMap<AEKey, Direction> getDirectionMap() {
+    /**
+     * @return An unmodifiable map of the side each input should be inserted into.
+     */
+    public Map<AEKey, Direction> getDirectionMap() {
         return dirMap;
     }
 
@@ -153,6 +182,11 @@ public class AdvProcessingPattern implements IPatternDetails, IAdvPatternDetails
         return this.dirMap.get(key);
     }
 
+    @Override
+    public InputSideLayout getInputSideLayout() {
+        return inputSideLayout;
+    }
+
     @Override
     public void pushInputsToExternalInventory(KeyCounter[] inputHolder, PatternInputSink inputSink) {
         if (sparseInputs.size() == inputs.length) {
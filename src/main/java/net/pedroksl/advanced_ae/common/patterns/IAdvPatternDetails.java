@@ -1,6 +1,6 @@
 package net.pedroksl.advanced_ae.common.patterns;
 
-import java.util.HashMap;
+import java.util.Map;
 
 import net.minecraft.core.Direction;
 
@@ -11,9 +11,14 @@ import appeng.api.stacks.KeyCounter;
 public interface IAdvPatternDetails {
     boolean directionalInputsSet();
 
-    HashMap<AEKey, Direction> getDirectionMap();
+    Map<AEKey, Direction> getDirectionMap();
 
     Direction getDirectionSideForInputKey(AEKey key);
 
+    /**
+     * @return The sides the inputs get pushed into, grouped by side.
+     */
+    InputSideLayout getInputSideLayout();
+
     void pushInputsToExternalInventory(KeyCounter[] inputHolder, IPatternDetails.PatternInputSink inputSink);
 }
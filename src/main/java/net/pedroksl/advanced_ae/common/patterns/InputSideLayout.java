@@ -0,0 +1,88 @@
+package net.pedroksl.advanced_ae.common.patterns;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import net.minecraft.core.Direction;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.stacks.AEKey;
+
+/**
+ * Where the inputs of a directional pattern get pushed, grouped by side so that every side only has to be looked at
+ * once per push.
+ */
+public final class InputSideLayout {
+    private final Direction[] sides;
+    private final int[][] groupInputs;
+    private final Object2IntMap<AEKey> keyGroups;
+
+    private InputSideLayout(Direction[] sides, int[][] groupInputs, Object2IntMap<AEKey> keyGroups) {
+        this.sides = sides;
+        this.groupInputs = groupInputs;
+        this.keyGroups = keyGroups;
+    }
+
+    /**
+     * Builds the layout of a pattern from the side of each of its input keys. Inputs without a side end up in a group
+     * with a null side.
+     */
+    public static InputSideLayout of(IPatternDetails.IInput[] inputs, Map<AEKey, Direction> dirMap) {
+        var sides = new ArrayList<Direction>();
+        var groups = new ArrayList<IntArrayList>();
+        var keyGroups = new Object2IntOpenHashMap<AEKey>(inputs.length);
+        keyGroups.defaultReturnValue(-1);
+
+        for (int i = 0; i < inputs.length; i++) {
+            var side = dirMap.get(inputs[i].getPossibleInputs()[0].what());
+            var group = sides.indexOf(side);
+            if (group < 0) {
+                group = sides.size();
+                sides.add(side);
+                groups.add(new IntArrayList());
+            }
+            groups.get(group).add(i);
+            for (var candidate : inputs[i].getPossibleInputs()) {
+                keyGroups.put(candidate.what(), group);
+            }
+        }
+
+        var groupInputs = new int[groups.size()][];
+        for (int g = 0; g < groupInputs.length; g++) {
+            groupInputs[g] = groups.get(g).toIntArray();
+        }
+        return new InputSideLayout(sides.toArray(new Direction[0]), groupInputs, keyGroups);
+    }
+
+    public int getGroupCount() {
+        return sides.length;
+    }
+
+    /**
+     * @return The side the inputs of a group go into, or null for the side the pattern is pushed to.
+     */
+    @Nullable
+    public Direction getSide(int group) {
+        return sides[group];
+    }
+
+    /**
+     * @return The indices in {@link IPatternDetails#getInputs()} of the inputs of a group. Must not be modified.
+     */
+    public int[] getInputs(int group) {
+        return groupInputs[group];
+    }
+
+    /**
+     * @return The group an input key goes into, or -1 if it isn't an input of the pattern.
+     */
+    public int getGroup(AEKey key) {
+        return keyGroups.getInt(key);
+    }
+}
@@ -112,7 +112,7 @@ public class AdvPatternEncoderContainer extends AEBaseMenu {
     private HashMap<AEKey, Direction> decodeAdvProcessingPattern(AdvProcessingPattern pattern) {
         this.outputSlot.set(this.inputSlot.getItem().copy());
 
-        return pattern.getDirectionMap();
+        return new HashMap<>(pattern.getDirectionMap());
     }
 
     private void clearDecodedPattern() {
@@ -129,7 +129,7 @@ public class AdvPatternEncoderContainer extends AEBaseMenu {
         AdvProcessingPattern details = (AdvProcessingPattern) PatternDetailsHelper.decodePattern(
                 this.outputSlot.getItem(), this.getPlayer().level());
         if (details != null) {
-            var dirMap = details.getDirectionMap();
+            var dirMap = new HashMap<>(details.getDirectionMap());
             dirMap.put(key, dir);
             var newPattern = AdvPatternDetailsEncoder.encodeProcessingPattern(
                     details.getSparseInputs(), details.getSparseOutputs(), dirMap);
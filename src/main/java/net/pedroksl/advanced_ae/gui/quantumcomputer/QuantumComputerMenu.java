@@ -80,7 +80,7 @@ public class QuantumComputerMenu extends CraftingCPUMenu {
         }
 
         if (isServerSide() && this.host.getCluster() != null) {
-            List<AdvCraftingCPU> newCpuSet = this.host.getCluster().getActiveCPUs();
+            List<AdvCraftingCPU> newCpuSet = new ArrayList<>(this.host.getCluster().getActiveCPUs());
             newCpuSet.add(this.host.getCluster().getRemainingCapacityCPU());
             if (!lastCpuSet.equals(newCpuSet)
                     // Always try to update once every second to show job progress
@@ -35,6 +35,12 @@ public class ReactionChamberMenu extends UpgradeableMenu<ReactionChamberEntity>
     @GuiSync(7)
     public YesNo autoExport = YesNo.NO;
 
+    @GuiSync(8)
+    public int parallelCrafts = 0;
+
+    @GuiSync(9)
+    public int maxParallelCrafts = 1;
+
     private static final String FLUSH_FLUID = "flushFluid";
 
     private final Slot first;
@@ -85,6 +91,8 @@ public class ReactionChamberMenu extends UpgradeableMenu<ReactionChamberEntity>
         if (isServerSide()) {
             this.maxProcessingTime = getHost().getMaxProcessingTime();
             this.processingTime = getHost().getProcessingTime();
+            this.parallelCrafts = getHost().getParallelCrafts();
+            this.maxParallelCrafts = getHost().getMaxParallelCrafts();
         }
         super.standardDetectAndSendChanges();
     }
@@ -109,6 +117,14 @@ public class ReactionChamberMenu extends UpgradeableMenu<ReactionChamberEntity>
         return this.maxProcessingTime;
     }
 
+    public int getParallelCrafts() {
+        return parallelCrafts;
+    }
+
+    public int getMaxParallelCrafts() {
+        return maxParallelCrafts;
+    }
+
     public YesNo getAutoExport() {
         return autoExport;
     }
@@ -6,7 +6,6 @@ import java.util.HashSet;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import com.llamalad7.mixinextras.sugar.Local;
 
 import org.apache.commons.lang3.mutable.MutableObject;
@@ -22,7 +21,11 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import net.minecraft.nbt.CompoundTag;
 import net.pedroksl.advanced_ae.common.cluster.AdvCraftingCPU;
 import net.pedroksl.advanced_ae.common.cluster.AdvCraftingCPUCluster;
+import net.pedroksl.advanced_ae.common.definitions.AAEConfig;
 import net.pedroksl.advanced_ae.common.entities.AdvCraftingBlockEntity;
+import net.pedroksl.advanced_ae.common.logic.AdvCraftingCPULogic;
+import net.pedroksl.advanced_ae.common.logic.QuantumComputerPlanner;
+import net.pedroksl.advanced_ae.common.logic.WaitingCpuIndex;
 
 import appeng.api.config.Actionable;
 import appeng.api.networking.IGrid;
@@ -50,6 +53,33 @@ public class MixinCraftingService {
     @Unique
     private final Set<AdvCraftingCPUCluster> advancedAE$advCraftingCPUClusters = new HashSet<>();
 
+    /**
+     * Keys that gained their first or lost their last waiting Quantum Computer CPU since the last tick.
+     */
+    @Unique
+    private final Set<AEKey> advancedAE$changedKeys = new HashSet<>();
+
+    @Unique
+    private final WaitingCpuIndex advancedAE$waitingCpus = new WaitingCpuIndex(advancedAE$changedKeys::add);
+
+    /**
+     * Keys the Quantum Computer CPUs were waiting for as of the end of the last tick.
+     */
+    @Unique
+    private final Set<AEKey> advancedAE$craftingKeys = new HashSet<>();
+
+    /**
+     * Keys we added to {@link #currentlyCrafting} because no regular CPU was crafting them.
+     */
+    @Unique
+    private Set<AEKey> advancedAE$injectedKeys = new HashSet<>();
+
+    @Unique
+    private Set<AEKey> advancedAE$previouslyInjectedKeys = new HashSet<>();
+
+    @Unique
+    private final Set<AEKey> advancedAE$keysToNotify = new HashSet<>();
+
     @Final
     @Shadow
     private IGrid grid;
@@ -72,27 +102,76 @@ public class MixinCraftingService {
     @Shadow
     public void addLink(CraftingLink link) {}
 
+    @Inject(method = "onServerEndTick", at = @At("HEAD"))
+    private void onServerEndTickHead(CallbackInfo ci) {
+        // Hide our keys so that the crafting service only diffs the keys of its own CPUs
+        this.currentlyCrafting.removeAll(this.advancedAE$injectedKeys);
+    }
+
     @Inject(method = "onServerEndTick", at = @At("TAIL"))
     private void tickAdvClusters(CallbackInfo ci) {
-        var previouslyCrafting = this.currentlyCrafting;
+        for (var cluster : this.advancedAE$advCraftingCPUClusters) {
+            cluster.reapInactiveCPUs();
+        }
+
+        if (AAEConfig.instance().isQuantumComputerParallelPlanning()) {
+            var toPlan = new ArrayList<AdvCraftingCPULogic>();
+            for (var cluster : this.advancedAE$advCraftingCPUClusters) {
+                for (var cpu : cluster.getActiveCPUs()) {
+                    if (cpu.craftingLogic.canPlanCrafting()) {
+                        toPlan.add(cpu.craftingLogic);
+                    }
+                }
+            }
+            QuantumComputerPlanner.planAll(toPlan);
+        }
+
         for (var cluster : this.advancedAE$advCraftingCPUClusters) {
             for (var cpu : cluster.getActiveCPUs()) {
                 cpu.craftingLogic.tickCraftingLogic(energyGrid, (CraftingService) (Object) this);
-                cpu.craftingLogic.getAllWaitingFor(this.currentlyCrafting);
             }
         }
 
-        // Notify watchers about items no longer being crafted
-        var changed = new HashSet<AEKey>();
-        changed.addAll(Sets.difference(previouslyCrafting, currentlyCrafting));
-        changed.addAll(Sets.difference(currentlyCrafting, previouslyCrafting));
-        for (var what : changed) {
-            for (var watcher : interestManager.get(what)) {
-                watcher.getHost().onRequestChange(what);
+        // At this point currentlyCrafting only holds the keys of the regular CPUs
+        var notify = this.advancedAE$keysToNotify;
+        for (var what : this.advancedAE$changedKeys) {
+            var changed = this.advancedAE$waitingCpus.isWaitingFor(what)
+                    ? this.advancedAE$craftingKeys.add(what)
+                    : this.advancedAE$craftingKeys.remove(what);
+            if (changed && !this.currentlyCrafting.contains(what)) {
+                notify.add(what);
+            }
+        }
+        this.advancedAE$changedKeys.clear();
+
+        var previouslyInjected = this.advancedAE$injectedKeys;
+        var injected = this.advancedAE$previouslyInjectedKeys;
+        injected.clear();
+        for (var what : this.advancedAE$craftingKeys) {
+            if (this.currentlyCrafting.add(what)) {
+                injected.add(what);
+                if (!previouslyInjected.contains(what)) {
+                    // Either a new key, or the regular CPUs stopped crafting it and the service already told its
+                    // watchers that it is no longer being crafted
+                    notify.add(what);
+                }
+            }
+        }
+        this.advancedAE$injectedKeys = injected;
+        this.advancedAE$previouslyInjectedKeys = previouslyInjected;
+
+        if (!notify.isEmpty()) {
+            for (var what : notify) {
+                for (var watcher : interestManager.get(what)) {
+                    watcher.getHost().onRequestChange(what);
+                }
             }
+            // Watchers of all stacks re-evaluate the state of the whole grid, so once per tick is enough
+            var any = notify.iterator().next();
             for (var watcher : interestManager.getAllStacksWatchers()) {
-                watcher.getHost().onRequestChange(what);
+                watcher.getHost().onRequestChange(any);
             }
+            notify.clear();
         }
     }
 
@@ -112,12 +191,15 @@ public class MixinCraftingService {
 
     @Inject(method = "updateCPUClusters", at = @At("TAIL"))
     private void onUpdateCPUClusters(CallbackInfo ci) {
+        var previousClusters = new ArrayList<>(this.advancedAE$advCraftingCPUClusters);
         this.advancedAE$advCraftingCPUClusters.clear();
+        this.advancedAE$waitingCpus.clear();
 
         for (var blockEntity : this.grid.getMachines(AdvCraftingBlockEntity.class)) {
             final AdvCraftingCPUCluster cluster = blockEntity.getCluster();
-            if (cluster != null) {
-                this.advancedAE$advCraftingCPUClusters.add(cluster);
+            if (cluster != null && this.advancedAE$advCraftingCPUClusters.add(cluster)) {
+                // Re-registers everything the cluster's CPUs are waiting for
+                cluster.setWaitingForListener(this.advancedAE$waitingCpus);
 
                 for (var cpu : cluster.getActiveCPUs()) {
                     ICraftingLink maybeLink = cpu.craftingLogic.getLastLink();
@@ -127,6 +209,12 @@ public class MixinCraftingService {
                 }
             }
         }
+
+        for (var cluster : previousClusters) {
+            if (!this.advancedAE$advCraftingCPUClusters.contains(cluster)) {
+                cluster.setWaitingForListener(null);
+            }
+        }
     }
 
     @Inject(method = "insertIntoCpus", at = @At("RETURN"), cancellable = true)
@@ -136,10 +224,11 @@ public class MixinCraftingService {
             Actionable type,
             CallbackInfoReturnable<Long> cir,
             @Local(ordinal = 1) long inserted) {
-        for (var cluster : this.advancedAE$advCraftingCPUClusters) {
-            for (var cpu : cluster.getActiveCPUs()) {
-                inserted += cpu.craftingLogic.insert(what, amount - inserted, type);
+        for (var logic : this.advancedAE$waitingCpus.getWaitingCpus(what)) {
+            if (inserted >= amount) {
+                break;
             }
+            inserted += logic.insert(what, amount - inserted, type);
         }
 
         cir.setReturnValue(inserted);
@@ -243,11 +332,7 @@ public class MixinCraftingService {
 
     @Inject(method = "getRequestedAmount", at = @At("RETURN"), cancellable = true)
     private void onGetRequestedAmount(AEKey what, CallbackInfoReturnable<Long> cir, @Local long requested) {
-        for (var cluster : this.advancedAE$advCraftingCPUClusters) {
-            for (var cpu : cluster.getActiveCPUs()) {
-                requested += cpu.craftingLogic.getWaitingFor(what);
-            }
-        }
+        requested += this.advancedAE$waitingCpus.getWaitingFor(what);
 
         cir.setReturnValue(requested);
     }
@@ -29,6 +29,13 @@ public class ReactionChamberRecipe implements Recipe<RecipeInput> {
 
     protected final int energy;
 
+    /**
+     * The non-empty item inputs, taken from the machine when a craft finishes. The ingredient objects are shared with
+     * {@link #inputs} and must not be mutated. Testing the fluid input during that step still allocates a
+     * {@code FluidStack} through {@code key.toStack(1)}.
+     */
+    private final List<IngredientStack.Item> consumedInputs;
+
     public final ItemStack output;
 
     public ReactionChamberRecipe(
@@ -37,6 +44,7 @@ public class ReactionChamberRecipe implements Recipe<RecipeInput> {
         this.output = output;
         this.fluid = Optional.ofNullable(fluid);
         this.energy = energy;
+        this.consumedInputs = nonEmpty(inputs);
     }
 
     public ReactionChamberRecipe(
@@ -45,6 +53,11 @@ public class ReactionChamberRecipe implements Recipe<RecipeInput> {
         this.inputs = inputs;
         this.fluid = fluid;
         this.energy = energy;
+        this.consumedInputs = nonEmpty(inputs);
+    }
+
+    private static List<IngredientStack.Item> nonEmpty(List<IngredientStack.Item> inputs) {
+        return inputs.stream().filter(input -> !input.isEmpty()).toList();
     }
 
     @Override
@@ -85,6 +98,14 @@ public class ReactionChamberRecipe implements Recipe<RecipeInput> {
         return inputs;
     }
 
+    /**
+     * @return The non-empty item inputs, in order. Unlike {@link #getValidInputs()}, these are not copies and must not
+     * be consumed.
+     */
+    public List<IngredientStack.Item> getConsumedInputs() {
+        return consumedInputs;
+    }
+
     public List<IngredientStack<?, ?>> getValidInputs() {
         List<IngredientStack<?, ?>> validInputs = new ArrayList<>();
 
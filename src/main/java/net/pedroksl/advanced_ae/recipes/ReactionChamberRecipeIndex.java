@@ -0,0 +1,164 @@
+package net.pedroksl.advanced_ae.recipes;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.glodblock.github.glodium.recipe.stack.IngredientStack;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.level.material.Fluid;
+import net.neoforged.neoforge.fluids.FluidStack;
+
+/**
+ * Index of the reaction chamber recipes by the items and fluids they use, so that lookups only have to test the
+ * recipes that could match.
+ * <p/>
+ * Recipes are referenced by their position in the recipe list, which keeps the lookup order of the list. Ingredients
+ * that can't list everything they match, e.g. ones that check data components, are tested for every lookup.
+ */
+final class ReactionChamberRecipeIndex {
+    /**
+     * The recipe list this index was built from. The recipe manager replaces it whenever recipes get reloaded.
+     */
+    final Collection<RecipeHolder<ReactionChamberRecipe>> source;
+
+    private final List<ReactionChamberRecipe> recipes = new ArrayList<>();
+    /**
+     * The inputs of each recipe, as returned by {@link ReactionChamberRecipe#getValidInputs()}.
+     */
+    private final List<List<IngredientStack<?, ?>>> recipeInputs = new ArrayList<>();
+
+    private final Map<Item, BitSet> recipesByItem = new IdentityHashMap<>();
+    /**
+     * Recipes with an item ingredient that isn't indexed by item, or without any item ingredient at all.
+     */
+    private final BitSet itemWildcards = new BitSet();
+
+    private final Map<Fluid, BitSet> recipesByFluid = new IdentityHashMap<>();
+    private final BitSet fluidWildcards = new BitSet();
+    private final BitSet recipesWithoutFluid = new BitSet();
+
+    /**
+     * Items and fluids that are matched by an indexed ingredient of any recipe.
+     */
+    private final Set<Item> ingredientItems = new HashSet<>();
+
+    private final Set<Fluid> ingredientFluids = new HashSet<>();
+
+    ReactionChamberRecipeIndex(Collection<RecipeHolder<ReactionChamberRecipe>> source) {
+        this.source = source;
+
+        for (var holder : source) {
+            var recipe = holder.value();
+            var ordinal = recipes.size();
+            recipes.add(recipe);
+            recipeInputs.add(List.copyOf(recipe.getValidInputs()));
+
+            var hasItemInput = false;
+            for (var input : recipe.getInputs()) {
+                if (input.isEmpty()) {
+                    continue;
+                }
+                hasItemInput = true;
+
+                var ingredient = input.getIngredient();
+                if (ingredient.isCustom()) {
+                    itemWildcards.set(ordinal);
+                    continue;
+                }
+                for (var stack : ingredient.getItems()) {
+                    recipesByItem.computeIfAbsent(stack.getItem(), i -> new BitSet()).set(ordinal);
+                    ingredientItems.add(stack.getItem());
+                }
+            }
+            if (!hasItemInput) {
+                itemWildcards.set(ordinal);
+            }
+
+            var fluid = recipe.getFluid();
+            if (fluid == null) {
+                recipesWithoutFluid.set(ordinal);
+            } else if (!fluid.getIngredient().isSimple()) {
+                fluidWildcards.set(ordinal);
+            } else {
+                for (var stack : fluid.getIngredient().getStacks()) {
+                    recipesByFluid.computeIfAbsent(stack.getFluid(), f -> new BitSet()).set(ordinal);
+                    ingredientFluids.add(stack.getFluid());
+                }
+            }
+        }
+    }
+
+    int size() {
+        return recipes.size();
+    }
+
+    ReactionChamberRecipe getRecipe(int ordinal) {
+        return recipes.get(ordinal);
+    }
+
+    List<IngredientStack<?, ?>> getInputs(int ordinal) {
+        return recipeInputs.get(ordinal);
+    }
+
+    /**
+     * @param items The non-empty items in the machine.
+     * @param fluid The fluid in the machine, or null if there is none.
+     * @return The recipes that might match. Every recipe that can match is included, but the inputs still have to be
+     * tested.
+     */
+    BitSet getCandidates(List<ItemStack> items, FluidStack fluid) {
+        var candidates = (BitSet) itemWildcards.clone();
+        for (var stack : items) {
+            var byItem = recipesByItem.get(stack.getItem());
+            if (byItem != null) {
+                candidates.or(byItem);
+            }
+        }
+
+        // Recipes that need a fluid can only match if it's there
+        var fluidCandidates = (BitSet) recipesWithoutFluid.clone();
+        if (fluid != null) {
+            fluidCandidates.or(fluidWildcards);
+            var byFluid = recipesByFluid.get(fluid.getFluid());
+            if (byFluid != null) {
+                fluidCandidates.or(byFluid);
+            }
+        }
+        candidates.and(fluidCandidates);
+        return candidates;
+    }
+
+    boolean isValidIngredient(ItemStack stack) {
+        if (ingredientItems.contains(stack.getItem())) {
+            return true;
+        }
+        for (int i = itemWildcards.nextSetBit(0); i >= 0; i = itemWildcards.nextSetBit(i + 1)) {
+            if (recipes.get(i).containsIngredient(stack)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isValidIngredient(FluidStack stack) {
+        // A recipe without a fluid accepts any fluid
+        if (!recipesWithoutFluid.isEmpty() || ingredientFluids.contains(stack.getFluid())) {
+            return true;
+        }
+        for (int i = fluidWildcards.nextSetBit(0); i >= 0; i = fluidWildcards.nextSetBit(i + 1)) {
+            if (recipes.get(i).containsIngredient(stack)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package net.pedroksl.advanced_ae.recipes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.GenericStack;
+
+/**
+ * Remembers the recipe lookups of a single reaction chamber. A chamber fed by a pattern provider keeps getting the same
+ * inputs, so the last lookup is checked first, followed by a few older ones.
+ * <p/>
+ * Lookups are remembered by the items and fluid in the machine regardless of their amounts, including lookups that
+ * found nothing. Only the amounts of the recipes that can match are checked again, in the usual lookup order.
+ */
+public final class ReactionChamberRecipeMemo {
+    private static final int MAX_ENTRIES = 16;
+
+    @Nullable
+    private ReactionChamberRecipeIndex index;
+
+    /**
+     * Copies of the inputs of the last lookup, compared against the machine before anything else.
+     */
+    private ItemStack lastInput1 = ItemStack.EMPTY;
+
+    private ItemStack lastInput2 = ItemStack.EMPTY;
+
+    private ItemStack lastInput3 = ItemStack.EMPTY;
+
+    @Nullable
+    private AEKey lastFluid;
+
+    @Nullable
+    private int[] lastCandidates;
+
+    private final Map<Signature, int[]> matchingTypes = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Signature, int[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @Nullable
+    public ReactionChamberRecipe findRecipe(
+            Level level, ItemStack input1, ItemStack input2, ItemStack input3, @Nullable GenericStack fluid) {
+        var currentIndex = ReactionChamberRecipes.getIndex(level);
+        if (currentIndex != index) {
+            // Recipes were reloaded
+            index = currentIndex;
+            lastCandidates = null;
+            matchingTypes.clear();
+        }
+
+        var machineInputs = ReactionChamberRecipes.getMachineInputs(input1, input2, input3);
+        var fluidStack = ReactionChamberRecipes.getFluidStack(fluid);
+        var fluidKey = fluid != null ? fluid.what() : null;
+
+        // Comparing the stacks doesn't copy anything, unlike building a signature from their components
+        if (lastCandidates == null
+                || !ItemStack.isSameItemSameComponents(input1, lastInput1)
+                || !ItemStack.isSameItemSameComponents(input2, lastInput2)
+                || !ItemStack.isSameItemSameComponents(input3, lastInput3)
+                || !Objects.equals(fluidKey, lastFluid)) {
+            lastInput1 = input1.copyWithCount(1);
+            lastInput2 = input2.copyWithCount(1);
+            lastInput3 = input3.copyWithCount(1);
+            lastFluid = fluidKey;
+
+            var signature = new Signature(
+                    lastInput1.getItem(),
+                    lastInput1.getComponentsPatch(),
+                    lastInput2.getItem(),
+                    lastInput2.getComponentsPatch(),
+                    lastInput3.getItem(),
+                    lastInput3.getComponentsPatch(),
+                    fluidKey);
+            var candidates = matchingTypes.get(signature);
+            if (candidates == null) {
+                candidates = ReactionChamberRecipes.findMatchingTypes(index, machineInputs, fluidStack);
+                matchingTypes.put(signature, candidates);
+            }
+            lastCandidates = candidates;
+        }
+
+        for (var candidate : lastCandidates) {
+            if (ReactionChamberRecipes.matches(index.getInputs(candidate), machineInputs, fluidStack, true)) {
+                return index.getRecipe(candidate);
+            }
+        }
+        return null;
+    }
+
+    private record Signature(
+            Item item1,
+            DataComponentPatch components1,
+            Item item2,
+            DataComponentPatch components2,
+            Item item3,
+            DataComponentPatch components3,
+            @Nullable AEKey fluid) {}
+}
@@ -10,85 +10,117 @@ import org.jetbrains.annotations.Nullable;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 import net.neoforged.neoforge.fluids.FluidStack;
 
 import appeng.api.stacks.AEFluidKey;
 import appeng.api.stacks.GenericStack;
 
 public final class ReactionChamberRecipes {
+    /**
+     * The recipe index of each logical side, rebuilt when the recipe list it was built from is replaced or tags change.
+     */
+    private static volatile ReactionChamberRecipeIndex serverIndex;
+
+    private static volatile ReactionChamberRecipeIndex clientIndex;
+
     private ReactionChamberRecipes() {}
 
     public static Iterable<RecipeHolder<ReactionChamberRecipe>> getRecipes(Level level) {
         return level.getRecipeManager().byType(ReactionChamberRecipe.TYPE);
     }
 
-    @Nullable
-    public static ReactionChamberRecipe findRecipe(
-            Level level, ItemStack input1, ItemStack input2, ItemStack input3, GenericStack fluid) {
-        List<ItemStack> machineInputs = new ArrayList<>();
+    static ReactionChamberRecipeIndex getIndex(Level level) {
+        var recipes = level.getRecipeManager().byType(ReactionChamberRecipe.TYPE);
+        var index = level.isClientSide() ? clientIndex : serverIndex;
+        if (index == null || index.source != recipes) {
+            index = new ReactionChamberRecipeIndex(recipes);
+            if (level.isClientSide()) {
+                clientIndex = index;
+            } else {
+                serverIndex = index;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Drops the recipe indices, since tags may have changed what ingredients match.
+     */
+    public static void invalidateIndex(TagsUpdatedEvent event) {
+        serverIndex = null;
+        clientIndex = null;
+    }
+
+    /**
+     * @return The index positions of the recipes whose ingredients are all in the machine, ignoring how much of them
+     * there is, in lookup order.
+     */
+    static int[] findMatchingTypes(
+            ReactionChamberRecipeIndex index, List<ItemStack> machineInputs, @Nullable FluidStack fluidStack) {
+        var candidates = index.getCandidates(machineInputs, fluidStack);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (!matches(index.getInputs(i), machineInputs, fluidStack, false)) {
+                candidates.clear(i);
+            }
+        }
+        return candidates.stream().toArray();
+    }
+
+    static List<ItemStack> getMachineInputs(ItemStack input1, ItemStack input2, ItemStack input3) {
+        List<ItemStack> machineInputs = new ArrayList<>(3);
         if (!input1.isEmpty()) machineInputs.add(input1);
         if (!input2.isEmpty()) machineInputs.add(input2);
         if (!input3.isEmpty()) machineInputs.add(input3);
+        return machineInputs;
+    }
 
-        for (var holder : getRecipes(level)) {
-            var recipe = holder.value();
-
-            var inputs = recipe.getValidInputs();
-
-            boolean failed = false;
-            for (var input : inputs) {
-                boolean found = false;
-                for (var machineInput : machineInputs) {
-                    if (input.checkType(machineInput)) {
-                        if (((IngredientStack.Item) input).getIngredient().test(machineInput)
-                                && input.getAmount() <= machineInput.getCount()) {
-                            found = true;
-                            break;
-                        }
-                    }
-                }
+    @Nullable
+    static FluidStack getFluidStack(@Nullable GenericStack fluid) {
+        if (fluid != null && fluid.what() instanceof AEFluidKey key) {
+            return key.toStack((int) fluid.amount());
+        }
+        return null;
+    }
 
-                if (input instanceof IngredientStack.Fluid fluidIn) {
-                    if (fluid != null && fluid.what() instanceof AEFluidKey key) {
-                        FluidStack fluidStack = key.toStack((int) fluid.amount());
-                        if (fluidIn.getIngredient().test(fluidStack)) {
-                            found = true;
-                        }
+    /**
+     * @param checkAmounts False to only check that each ingredient is there, not that there is enough of it.
+     */
+    static boolean matches(
+            List<IngredientStack<?, ?>> inputs,
+            List<ItemStack> machineInputs,
+            @Nullable FluidStack fluidStack,
+            boolean checkAmounts) {
+        for (var input : inputs) {
+            boolean found = false;
+            for (var machineInput : machineInputs) {
+                if (input.checkType(machineInput)) {
+                    if (((IngredientStack.Item) input).getIngredient().test(machineInput)
+                            && (!checkAmounts || input.getAmount() <= machineInput.getCount())) {
+                        found = true;
+                        break;
                     }
                 }
+            }
 
-                if (!found) {
-                    failed = true;
-                    break;
+            if (input instanceof IngredientStack.Fluid fluidIn) {
+                if (fluidStack != null && fluidIn.getIngredient().test(fluidStack)) {
+                    found = true;
                 }
             }
-            if (failed) {
-                continue;
-            }
 
-            return recipe;
+            if (!found) {
+                return false;
+            }
         }
-
-        return null;
+        return true;
     }
 
     public static boolean isValidIngredient(ItemStack stack, Level level) {
-        for (var holder : getRecipes(level)) {
-            var recipe = holder.value();
-            if (recipe.containsIngredient(stack)) {
-                return true;
-            }
-        }
-        return false;
+        return getIndex(level).isValidIngredient(stack);
     }
 
     public static boolean isValidIngredient(FluidStack stack, Level level) {
-        for (var holder : getRecipes(level)) {
-            var recipe = holder.value();
-            if (recipe.containsIngredient(stack)) {
-                return true;
-            }
-        }
-        return false;
+        return getIndex(level).isValidIngredient(stack);
     }
 }